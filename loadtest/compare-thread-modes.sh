@@ -0,0 +1,31 @@
+#!/usr/bin/env bash
+# Runs the k6 load test against the application twice, once with Tomcat's platform-thread
+# pool and once with virtual threads, and prints throughput and latency for both.
+# Requires: a Java 21 build (mvn -P java21 package), k6, and DATABASE pointing at Postgres.
+set -euo pipefail
+
+cd "$(dirname "$0")"
+JAR=$(ls ../target/catalog-*.jar | head -n 1)
+PORT=${PORT:-8080}
+export PORT
+
+run_mode() {
+  local mode=$1 virtual=$2
+  echo "Starting application ($mode threads)..."
+  VIRTUAL_THREADS=$virtual java -jar "$JAR" > "app-$mode.log" 2>&1 &
+  local pid=$!
+  trap 'kill $pid 2>/dev/null || true' EXIT
+
+  until curl -sf "http://localhost:$PORT/health" > /dev/null; do
+    sleep 1
+  done
+
+  k6 run --quiet -e BASE_URL="http://localhost:$PORT" -e MODE="$mode" -e MAX_VUS="${MAX_VUS:-2000}" products.js
+
+  kill $pid
+  wait $pid 2>/dev/null || true
+  trap - EXIT
+}
+
+run_mode platform false
+run_mode virtual true
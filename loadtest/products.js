@@ -0,0 +1,55 @@
+// k6 load test for the catalog read endpoints.
+// Usage: k6 run -e BASE_URL=http://localhost:8080 -e MODE=virtual products.js
+import http from 'k6/http';
+import { check } from 'k6';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080';
+const MODE = __ENV.MODE || 'platform';
+const MAX_VUS = parseInt(__ENV.MAX_VUS || '2000');
+
+export const options = {
+  scenarios: {
+    slow_clients: {
+      executor: 'ramping-vus',
+      startVUs: 0,
+      stages: [
+        { duration: '30s', target: MAX_VUS / 4 },
+        { duration: '1m', target: MAX_VUS },
+        { duration: '2m', target: MAX_VUS },
+        { duration: '30s', target: 0 },
+      ],
+      gracefulRampDown: '10s',
+    },
+  },
+  summaryTrendStats: ['avg', 'med', 'p(90)', 'p(95)', 'p(99)', 'max'],
+};
+
+const SEARCH_TERMS = ['phone', 'laptop', 'book', 'shirt', 'chair'];
+
+export default function () {
+  const roll = Math.random();
+  let res;
+  if (roll < 0.5) {
+    const page = Math.floor(Math.random() * 50);
+    res = http.get(`${BASE_URL}/api/products?page=${page}&size=20`, { tags: { endpoint: 'list' } });
+  } else if (roll < 0.8) {
+    const term = SEARCH_TERMS[Math.floor(Math.random() * SEARCH_TERMS.length)];
+    res = http.get(`${BASE_URL}/api/products/search?q=${term}`, { tags: { endpoint: 'search' } });
+  } else {
+    const id = 1 + Math.floor(Math.random() * 1000);
+    res = http.get(`${BASE_URL}/api/products/${id}`, { tags: { endpoint: 'get' } });
+  }
+  // 404 on random ids and 503 from the concurrency limit are expected outcomes, not failures
+  check(res, { 'no server error': (r) => r.status < 500 || r.status === 503 });
+}
+
+export function handleSummary(data) {
+  const duration = data.metrics.http_req_duration.values;
+  const line = `${MODE}: ${data.metrics.http_reqs.values.rate.toFixed(1)} req/s, ` +
+      `p99 ${duration['p(99)'].toFixed(1)} ms, p95 ${duration['p(95)'].toFixed(1)} ms, ` +
+      `failed ${(data.metrics.http_req_failed.values.rate * 100).toFixed(2)}%\n`;
+  return {
+    stdout: line,
+    [`results-${MODE}.json`]: JSON.stringify(data, null, 2),
+  };
+}
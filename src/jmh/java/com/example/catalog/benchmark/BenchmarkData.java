@@ -0,0 +1,52 @@
+package com.example.catalog.benchmark;
+
+import com.example.catalog.dto.ProductDto;
+import com.example.catalog.entity.Product;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Deterministic product fixtures shared by the benchmarks
+ */
+public final class BenchmarkData {
+
+    public static final String[] CATEGORIES = {"Electronics", "Books", "Clothing", "Home", "Sports", "Toys"};
+
+    private static final LocalDateTime TIMESTAMP = LocalDateTime.of(2024, 1, 15, 10, 30);
+
+    private BenchmarkData() {}
+
+    public static String name(int i) {
+        return "Product " + i;
+    }
+
+    public static String description(int i) {
+        return "Description for product " + i + " with enough text to look like a real catalog entry";
+    }
+
+    public static BigDecimal price(int i) {
+        return BigDecimal.valueOf(1000 + (i % 90000), 2);
+    }
+
+    public static String category(int i) {
+        return CATEGORIES[i % CATEGORIES.length];
+    }
+
+    public static int stock(int i) {
+        return i % 100;
+    }
+
+    public static Product product(int i) {
+        Product product = new Product(name(i), description(i), price(i), category(i), stock(i));
+        product.setId((long) i);
+        product.setCreatedAt(TIMESTAMP);
+        product.setUpdatedAt(TIMESTAMP);
+        product.setVersion(0L);
+        return product;
+    }
+
+    public static ProductDto productDto(int i) {
+        return new ProductDto((long) i, name(i), description(i), price(i), category(i), stock(i), TIMESTAMP, TIMESTAMP, 0L);
+    }
+}
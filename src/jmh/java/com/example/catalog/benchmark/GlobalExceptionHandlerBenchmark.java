@@ -0,0 +1,62 @@
+package com.example.catalog.benchmark;
+
+import com.example.catalog.controller.ProductController;
+import com.example.catalog.dto.CreateProductDto;
+import com.example.catalog.exception.GlobalExceptionHandler;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.FieldError;
+import org.springframework.web.bind.MethodArgumentNotValidException;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Error paths of GlobalExceptionHandler: building the response body and rendering it as JSON
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GlobalExceptionHandlerBenchmark {
+
+    private GlobalExceptionHandler handler;
+    private ObjectMapper objectMapper;
+    private MethodArgumentNotValidException validationException;
+
+    @Setup
+    public void setUp() throws Exception {
+        handler = new GlobalExceptionHandler();
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+        CreateProductDto dto = new CreateProductDto();
+        BeanPropertyBindingResult bindingResult = new BeanPropertyBindingResult(dto, "createProductDto");
+        bindingResult.addError(new FieldError("createProductDto", "name", "Product name is required"));
+        bindingResult.addError(new FieldError("createProductDto", "price", "Price is required"));
+        bindingResult.addError(new FieldError("createProductDto", "stock", "Stock is required"));
+        MethodParameter parameter = new MethodParameter(
+                ProductController.class.getMethod("createProduct", CreateProductDto.class), 0);
+        validationException = new MethodArgumentNotValidException(parameter, bindingResult);
+    }
+
+    @Benchmark
+    public byte[] validationError() throws Exception {
+        return objectMapper.writeValueAsBytes(handler.handleValidationExceptions(validationException).getBody());
+    }
+
+    @Benchmark
+    public byte[] illegalArgument() throws Exception {
+        IllegalArgumentException ex = new IllegalArgumentException("Invalid cursor");
+        return objectMapper.writeValueAsBytes(handler.handleIllegalArgumentException(ex).getBody());
+    }
+
+    @Benchmark
+    public byte[] genericException() throws Exception {
+        RuntimeException ex = new RuntimeException("boom");
+        return objectMapper.writeValueAsBytes(handler.handleGenericException(ex).getBody());
+    }
+}
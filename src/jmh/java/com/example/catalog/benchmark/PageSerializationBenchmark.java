@@ -0,0 +1,84 @@
+package com.example.catalog.benchmark;
+
+import com.example.catalog.config.JacksonConfig;
+import com.example.catalog.dto.CompactPageDto;
+import com.example.catalog.dto.ProductDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of the Page<ProductDto> returned by the list endpoints, against the
+ * compact envelope and a sparse fieldset (fields=id,name,price) of the same page.
+ * The mapper is built like Spring Boot's auto-configured one (JSR-310 module, ISO dates, JacksonConfig filters).
+ * Payload sizes per variant are printed once per trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PageSerializationBenchmark {
+
+    @Param({"20", "100", "1000"})
+    private int pageSize;
+
+    private ObjectMapper objectMapper;
+    private ObjectWriter fieldsWriter;
+    private Page<ProductDto> page;
+    private CompactPageDto<ProductDto> compactPage;
+    private ProductDto product;
+
+    @Setup
+    public void setUp() throws Exception {
+        objectMapper = Jackson2ObjectMapperBuilder.json().filters(JacksonConfig.allFields()).build();
+        fieldsWriter = objectMapper.writer(JacksonConfig.selectedFields(List.of("id", "name", "price")));
+        List<ProductDto> content = new ArrayList<>(pageSize);
+        for (int i = 0; i < pageSize; i++) {
+            content.add(BenchmarkData.productDto(i));
+        }
+        page = new PageImpl<>(content, PageRequest.of(0, pageSize, Sort.by("name")), 100_000);
+        compactPage = new CompactPageDto<>(content, page.getNumber(), page.getSize(),
+                page.getTotalElements(), page.getTotalPages());
+        product = BenchmarkData.productDto(1);
+
+        System.out.printf("%npageSize=%d bytes: page=%d, compact=%d, page+fields=%d, compact+fields=%d%n", pageSize,
+                serializePage().length, serializeCompactPage().length,
+                serializePageFields().length, serializeCompactPageFields().length);
+    }
+
+    @Benchmark
+    public byte[] serializePage() throws Exception {
+        return objectMapper.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public byte[] serializeCompactPage() throws Exception {
+        return objectMapper.writeValueAsBytes(compactPage);
+    }
+
+    @Benchmark
+    public byte[] serializePageFields() throws Exception {
+        return fieldsWriter.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public byte[] serializeCompactPageFields() throws Exception {
+        return fieldsWriter.writeValueAsBytes(compactPage);
+    }
+
+    @Benchmark
+    public byte[] serializeSingle() throws Exception {
+        return objectMapper.writeValueAsBytes(product);
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.catalog.benchmark;
+
+import com.example.catalog.CatalogApplication;
+import com.example.catalog.dto.ProductDto;
+import com.example.catalog.service.ProductService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ProductService reads against the H2 test database at several table sizes.
+ * Each fork boots the application with the test profile and loads the table over plain JDBC.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductServiceBenchmark {
+
+    private static final int INSERT_BATCH_SIZE = 1000;
+
+    @Param({"1000", "10000", "100000"})
+    private int tableSize;
+
+    private ConfigurableApplicationContext context;
+    private ProductService productService;
+    private int lastPage;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(CatalogApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("test")
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1",
+                        "spring.jpa.show-sql=false",
+                        "logging.level.root=WARN",
+                        "logging.level.com.example.catalog=WARN",
+                        "logging.level.org.springframework.web=WARN")
+                .run();
+        productService = context.getBean(ProductService.class);
+        loadProducts(context.getBean(JdbcTemplate.class));
+        lastPage = tableSize / 20 - 1;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Page<ProductDto> getAllProductsFirstPage() {
+        return productService.getAllProducts(0, 20, "name", "asc");
+    }
+
+    @Benchmark
+    public Page<ProductDto> getAllProductsLastPage() {
+        return productService.getAllProducts(lastPage, 20, "name", "asc");
+    }
+
+    @Benchmark
+    public Page<ProductDto> searchProducts() {
+        return productService.searchProducts("product 42", 0, 20);
+    }
+
+    @Benchmark
+    public Page<ProductDto> searchProductsNoMatch() {
+        return productService.searchProducts("no such product", 0, 20);
+    }
+
+    private void loadProducts(JdbcTemplate jdbcTemplate) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> batch = new ArrayList<>(INSERT_BATCH_SIZE);
+        for (int i = 1; i <= tableSize; i++) {
+            batch.add(new Object[] {(long) i, BenchmarkData.name(i), BenchmarkData.description(i),
+                    BenchmarkData.price(i), BenchmarkData.category(i), BenchmarkData.stock(i), now, now});
+            if (batch.size() == INSERT_BATCH_SIZE || i == tableSize) {
+                jdbcTemplate.batchUpdate("INSERT INTO products (id, name, description, price, category, stock, created_at, updated_at) "
+                        + "VALUES (?, ?, ?, ?, ?, ?, ?, ?)", batch);
+                batch.clear();
+            }
+        }
+    }
+}
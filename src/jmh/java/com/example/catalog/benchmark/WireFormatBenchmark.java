@@ -0,0 +1,97 @@
+package com.example.catalog.benchmark;
+
+import com.example.catalog.config.JacksonConfig;
+import com.example.catalog.dto.CompactPageDto;
+import com.example.catalog.dto.ProductDto;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encode and decode time of a product page in each wire format ProductController negotiates
+ * (JSON, Smile, CBOR). Each mapper is built the way WebConfig builds its converter.
+ * Payload sizes per format are reported by the payloadSize benchmark as its payloadBytes secondary result.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WireFormatBenchmark {
+
+    @Param({"json", "smile", "cbor"})
+    private String format;
+
+    @Param({"100", "1000"})
+    private int pageSize;
+
+    private ObjectWriter writer;
+    private ObjectReader reader;
+    private CompactPageDto<ProductDto> page;
+    private byte[] encoded;
+
+    @Setup
+    public void setUp() throws Exception {
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json().filters(JacksonConfig.allFields());
+        ObjectMapper objectMapper = switch (format) {
+            case "smile" -> builder.factory(new SmileFactory()).build();
+            case "cbor" -> builder.factory(new CBORFactory()).build();
+            default -> builder.build();
+        };
+        JavaType pageType = objectMapper.getTypeFactory()
+                .constructParametricType(CompactPageDto.class, ProductDto.class);
+        writer = objectMapper.writerFor(pageType);
+        reader = objectMapper.readerFor(pageType);
+
+        List<ProductDto> content = new ArrayList<>(pageSize);
+        for (int i = 0; i < pageSize; i++) {
+            content.add(BenchmarkData.productDto(i));
+        }
+        page = new CompactPageDto<>(content, 0, pageSize, 100_000, 100_000 / pageSize);
+        encoded = writer.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public byte[] encode() throws Exception {
+        return writer.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public CompactPageDto<ProductDto> decode() throws Exception {
+        return reader.readValue(encoded);
+    }
+
+    /**
+     * Not a timing: one encode whose size is the payloadBytes secondary result. EVENTS counters are summed
+     * over iterations, hence a single measured iteration (do not override it with -i).
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 0)
+    @Measurement(iterations = 1)
+    public byte[] payloadSize(PayloadSize payloadSize) throws Exception {
+        byte[] bytes = writer.writeValueAsBytes(page);
+        payloadSize.payloadBytes = bytes.length;
+        return bytes;
+    }
+
+    /**
+     * Encoded size of the page; JMH zeroes it before each iteration
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class PayloadSize {
+
+        public long payloadBytes;
+    }
+}
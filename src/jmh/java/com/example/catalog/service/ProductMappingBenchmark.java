@@ -0,0 +1,51 @@
+package com.example.catalog.service;
+
+import com.example.catalog.benchmark.BenchmarkData;
+import com.example.catalog.dto.ProductDto;
+import com.example.catalog.entity.Product;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity to DTO mapping, for a single product and for a page of products.
+ * Lives in the service package because convertToDto is package-private.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProductMappingBenchmark {
+
+    @Param({"20", "100", "1000"})
+    private int pageSize;
+
+    private Product product;
+    private List<Product> page;
+
+    @Setup
+    public void setUp() {
+        product = BenchmarkData.product(1);
+        page = new ArrayList<>(pageSize);
+        for (int i = 0; i < pageSize; i++) {
+            page.add(BenchmarkData.product(i));
+        }
+    }
+
+    @Benchmark
+    public ProductDto convertSingle() {
+        return ProductService.convertToDto(product);
+    }
+
+    @Benchmark
+    public void convertPage(Blackhole blackhole) {
+        for (Product item : page) {
+            blackhole.consume(ProductService.convertToDto(item));
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.catalog.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Enables the in-process product cache.
+ * Size and TTL are configured through spring.cache.caffeine.spec.
+ *
+ * The caching advice is ordered outside the transaction advice so that a cache hit
+ * never opens a transaction (and never borrows a pooled connection), and so that
+ * puts/evictions happen only after the surrounding write has committed.
+ */
+@Configuration
+@EnableCaching(order = Ordered.LOWEST_PRECEDENCE - 1)
+public class CacheConfig {
+
+    public static final String PRODUCTS_CACHE = "products";
+}
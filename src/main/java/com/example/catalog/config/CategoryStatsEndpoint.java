@@ -0,0 +1,28 @@
+package com.example.catalog.config;
+
+import com.example.catalog.service.CategoryStatsMaintenance;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.jmx.annotation.JmxEndpoint;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * categorystats repair operation: recomputes category_stats from the products table.
+ * JMX only (spring.jmx.enabled=true), so the full scan cannot be triggered over HTTP.
+ */
+@Component
+@JmxEndpoint(id = "categorystats")
+public class CategoryStatsEndpoint {
+
+    private final CategoryStatsMaintenance categoryStatsMaintenance;
+
+    public CategoryStatsEndpoint(CategoryStatsMaintenance categoryStatsMaintenance) {
+        this.categoryStatsMaintenance = categoryStatsMaintenance;
+    }
+
+    @WriteOperation
+    public Map<String, Integer> repair() {
+        return Map.of("categories", categoryStatsMaintenance.repairAll());
+    }
+}
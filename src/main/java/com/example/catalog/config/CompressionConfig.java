@@ -0,0 +1,57 @@
+package com.example.catalog.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.boot.web.server.Compression;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Registers the precompressed-response cache for hot GET endpoints; the other responses
+ * are compressed by Tomcat (server.compression), with the same MIME types and minimum size
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(name = "server.compression.enabled", havingValue = "true")
+public class CompressionConfig {
+
+    @Value("${catalog.compression.precompressed-paths:}")
+    private List<String> precompressedPaths;
+
+    @Value("${catalog.compression.cache-max-entries:1000}")
+    private long cacheMaxEntries;
+
+    @Bean
+    public FilterRegistrationBean<PrecompressedResponseFilter> precompressedResponseFilter(ServerProperties serverProperties,
+                                                                                          MeterRegistry meterRegistry) {
+        Compression compression = serverProperties.getCompression();
+        PrecompressedResponseFilter filter = new PrecompressedResponseFilter(precompressedPaths,
+                Arrays.asList(compression.getMimeTypes()), (int) compression.getMinResponseSize().toBytes(),
+                cacheMaxEntries);
+
+        FunctionCounter.builder("catalog.compression.cache.hits", filter, PrecompressedResponseFilter::getHits)
+                .description("Responses served from previously gzipped bytes")
+                .register(meterRegistry);
+        FunctionCounter.builder("catalog.compression.cache.compressions", filter, PrecompressedResponseFilter::getCompressions)
+                .description("Responses gzipped and stored because no entry matched their ETag")
+                .register(meterRegistry);
+        Gauge.builder("catalog.compression.cache.size", filter, PrecompressedResponseFilter::getSize)
+                .register(meterRegistry);
+
+        FilterRegistrationBean<PrecompressedResponseFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.addUrlPatterns("/api/*");
+        // Inside the concurrency limit, so compressing counts against the request's permit
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 20);
+        return registration;
+    }
+}
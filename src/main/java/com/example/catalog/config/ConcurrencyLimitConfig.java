@@ -0,0 +1,56 @@
+package com.example.catalog.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import java.time.Duration;
+
+/**
+ * Registers the pool-aware concurrency limit; on by default in virtual-thread mode
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(name = "catalog.concurrency.enabled", havingValue = "true")
+public class ConcurrencyLimitConfig {
+
+    @Value("${catalog.concurrency.max-in-flight:0}")
+    private int maxInFlight;
+
+    @Value("${catalog.concurrency.acquire-timeout:2s}")
+    private Duration acquireTimeout;
+
+    @Value("${DB_POOL_SIZE:20}")
+    private int poolSize;
+
+    @Bean
+    public FilterRegistrationBean<ConcurrencyLimitFilter> concurrencyLimitFilter(ObjectMapper objectMapper,
+                                                                                 MeterRegistry meterRegistry) {
+        // Default: twice the connection pool, so the pool stays busy while some requests
+        // serialize responses, without letting thousands of requests wait on Hikari
+        int limit = maxInFlight > 0 ? maxInFlight : poolSize * 2;
+        ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(limit, acquireTimeout, objectMapper);
+
+        Gauge.builder("catalog.concurrency.in-flight", filter, ConcurrencyLimitFilter::getInFlight)
+                .description("API requests currently holding a concurrency permit")
+                .register(meterRegistry);
+        Gauge.builder("catalog.concurrency.limit", filter, ConcurrencyLimitFilter::getMaxInFlight)
+                .register(meterRegistry);
+        FunctionCounter.builder("catalog.concurrency.rejected", filter, ConcurrencyLimitFilter::getRejected)
+                .description("API requests rejected with 503 after waiting for a permit")
+                .register(meterRegistry);
+
+        FilterRegistrationBean<ConcurrencyLimitFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.addUrlPatterns("/*");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+}
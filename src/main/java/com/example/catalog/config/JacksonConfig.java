@@ -0,0 +1,41 @@
+package com.example.catalog.config;
+
+import com.example.catalog.dto.ProductDto;
+import com.fasterxml.jackson.databind.ser.FilterProvider;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.HashSet;
+import java.util.List;
+
+/**
+ * Jackson filters behind sparse fieldsets: ProductDto is written in full by default,
+ * and a response can swap in a filter that writes only the selected properties.
+ */
+@Configuration
+public class JacksonConfig {
+
+    @Bean
+    public Jackson2ObjectMapperBuilderCustomizer productFieldsCustomizer() {
+        return builder -> builder.filters(allFields());
+    }
+
+    /**
+     * Filters writing every ProductDto property
+     */
+    public static FilterProvider allFields() {
+        return new SimpleFilterProvider()
+                .addFilter(ProductDto.FIELDS_FILTER, SimpleBeanPropertyFilter.serializeAll());
+    }
+
+    /**
+     * Filters writing only the given ProductDto properties
+     */
+    public static FilterProvider selectedFields(List<String> fields) {
+        return new SimpleFilterProvider()
+                .addFilter(ProductDto.FIELDS_FILTER, SimpleBeanPropertyFilter.filterOutAllExcept(new HashSet<>(fields)));
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.catalog.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.http.HttpServletRequest;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.Collection;
+import java.util.Optional;
+
+/**
+ * Times every public ProductService method (catalog.service) and every ProductRepository query
+ * (catalog.repository), and records the rows each query returned (catalog.repository.rows).
+ * All meters are tagged with the HTTP endpoint being served, so p99 latency can be broken down per route.
+ */
+@Aspect
+@Component
+public class PerformanceMetricsAspect {
+
+    static final String NO_ENDPOINT = "none";
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Around("execution(public * com.example.catalog.service.ProductService.*(..))")
+    public Object timeService(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time("catalog.service", joinPoint, false);
+    }
+
+    @Around("this(com.example.catalog.repository.ProductRepository) && !execution(* java.lang.Object.*(..))")
+    public Object timeRepository(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time("catalog.repository", joinPoint, true);
+    }
+
+    private Object time(String name, ProceedingJoinPoint joinPoint, boolean recordRows) throws Throwable {
+        String method = joinPoint.getSignature().getName();
+        String endpoint = currentEndpoint();
+        String exception = "none";
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            Object result = joinPoint.proceed();
+            if (recordRows) {
+                recordRows(method, endpoint, result);
+            }
+            return result;
+        } catch (Throwable e) {
+            exception = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            sample.stop(Timer.builder(name)
+                    .tag("method", method)
+                    .tag("endpoint", endpoint)
+                    .tag("exception", exception)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+        }
+    }
+
+    /**
+     * Rows are counted for lists, pages and optionals; counts, streams and saves are not row sets
+     */
+    private void recordRows(String method, String endpoint, Object result) {
+        long rows;
+        if (result instanceof Collection<?> collection) {
+            rows = collection.size();
+        } else if (result instanceof Slice<?> slice) {
+            rows = slice.getNumberOfElements();
+        } else if (result instanceof Optional<?> optional) {
+            rows = optional.isPresent() ? 1 : 0;
+        } else {
+            return;
+        }
+        DistributionSummary.builder("catalog.repository.rows")
+                .baseUnit("rows")
+                .tag("method", method)
+                .tag("endpoint", endpoint)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(rows);
+    }
+
+    /**
+     * "GET /api/products/category/{category}" for the request on this thread, or "none" outside Spring MVC
+     */
+    static String currentEndpoint() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (!(attributes instanceof ServletRequestAttributes servletAttributes)) {
+            return NO_ENDPOINT;
+        }
+        return endpoint(servletAttributes.getRequest());
+    }
+
+    static String endpoint(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern == null ? NO_ENDPOINT : request.getMethod() + " " + pattern;
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.catalog.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Gzips hot, cacheable GET responses once and reuses the compressed bytes while their ETag is unchanged.
+ * The controller still runs (and still answers 304 on its own); only the compression is skipped on a hit.
+ * Responses this filter compresses carry Content-Encoding, so Tomcat's own compression leaves them alone.
+ */
+public class PrecompressedResponseFilter extends OncePerRequestFilter {
+
+    private static final AntPathMatcher PATH_MATCHER = new AntPathMatcher();
+
+    private final List<String> pathPatterns;
+    private final List<MediaType> mimeTypes;
+    private final int minResponseSize;
+    private final Cache<String, CompressedBody> cache;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong compressions = new AtomicLong();
+
+    public PrecompressedResponseFilter(List<String> pathPatterns, List<String> mimeTypes, int minResponseSize,
+                                       long maxEntries) {
+        this.pathPatterns = pathPatterns;
+        this.mimeTypes = MediaType.parseMediaTypes(mimeTypes);
+        this.minResponseSize = minResponseSize;
+        this.cache = Caffeine.newBuilder().maximumSize(maxEntries).build();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!"GET".equals(request.getMethod()) || !acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING))) {
+            return true;
+        }
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return pathPatterns.stream().noneMatch(pattern -> PATH_MATCHER.match(pattern, path));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        filterChain.doFilter(request, wrapper);
+
+        String eTag = wrapper.getHeader(HttpHeaders.ETAG);
+        if (wrapper.getStatus() != HttpServletResponse.SC_OK || eTag == null
+                || wrapper.getContentSize() < minResponseSize
+                || wrapper.getHeader(HttpHeaders.CONTENT_ENCODING) != null
+                || !isCompressible(wrapper.getContentType())) {
+            wrapper.copyBodyToResponse();
+            return;
+        }
+
+        // The ETag identifies the uncompressed bytes, so an entry with the same ETag holds exactly their gzip
+        String key = request.getRequestURI() + '?' + request.getQueryString() + '|' + wrapper.getContentType();
+        CompressedBody cached = cache.getIfPresent(key);
+        byte[] gzip;
+        if (cached != null && cached.eTag().equals(eTag)) {
+            hits.incrementAndGet();
+            gzip = cached.gzip();
+        } else {
+            compressions.incrementAndGet();
+            gzip = gzip(wrapper.getContentAsByteArray());
+            cache.put(key, new CompressedBody(eTag, gzip));
+        }
+
+        // A strong ETag promises exact bytes, which the gzip encoding no longer are
+        if (!eTag.startsWith("W/")) {
+            wrapper.setHeader(HttpHeaders.ETAG, "W/" + eTag);
+        }
+        wrapper.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        wrapper.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        wrapper.resetBuffer();
+        response.setContentLength(gzip.length);
+        response.getOutputStream().write(gzip);
+        response.flushBuffer();
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getCompressions() {
+        return compressions.get();
+    }
+
+    public long getSize() {
+        return cache.estimatedSize();
+    }
+
+    private boolean isCompressible(String contentType) {
+        if (contentType == null) {
+            return false;
+        }
+        MediaType mediaType = MediaType.parseMediaType(contentType);
+        return mimeTypes.stream().anyMatch(type -> type.includes(mediaType));
+    }
+
+    /**
+     * True unless Accept-Encoding is missing, lacks gzip, or refuses it with q=0
+     */
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (!parts[0].trim().equalsIgnoreCase("gzip") && !parts[0].trim().equals("*")) {
+                continue;
+            }
+            for (int i = 1; i < parts.length; i++) {
+                if (parts[i].replace(" ", "").matches("q=0(\\.0*)?")) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private static byte[] gzip(byte[] content) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(content.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(content);
+        }
+        return compressed.toByteArray();
+    }
+
+    private record CompressedBody(String eTag, byte[] gzip) {}
+}
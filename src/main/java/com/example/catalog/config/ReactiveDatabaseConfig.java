@@ -0,0 +1,114 @@
+package com.example.catalog.config;
+
+import com.example.catalog.repository.ReactiveProductRepository;
+import io.github.cdimascio.dotenv.Dotenv;
+import io.r2dbc.pool.PoolingConnectionFactoryProvider;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.r2dbc.config.AbstractR2dbcConfiguration;
+import org.springframework.data.r2dbc.repository.config.EnableR2dbcRepositories;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+
+/**
+ * R2DBC setup for the reactive stack (WEB_STACK=reactive).
+ * Spring Boot's R2DBC auto-configuration is excluded in application.yml so the servlet stack never
+ * opens R2DBC connections; here the connection pool is built from the same DATABASE url as {@link DatabaseConfig}.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@EnableR2dbcRepositories(basePackageClasses = ReactiveProductRepository.class)
+public class ReactiveDatabaseConfig extends AbstractR2dbcConfiguration {
+
+    @Value("${DATABASE:}")
+    private String databaseUrl;
+
+    // Explicit R2DBC url (e.g. r2dbc:h2:mem:///testdb in tests); takes precedence over DATABASE
+    @Value("${spring.r2dbc.url:}")
+    private String r2dbcUrl;
+
+    @Value("${spring.r2dbc.username:}")
+    private String r2dbcUsername;
+
+    @Value("${spring.r2dbc.password:}")
+    private String r2dbcPassword;
+
+    @Value("${DB_POOL_SIZE:20}")
+    private int maximumPoolSize;
+
+    @Override
+    @Bean
+    public ConnectionFactory connectionFactory() {
+        ConnectionFactoryOptions.Builder options;
+        if (!r2dbcUrl.isEmpty()) {
+            options = ConnectionFactoryOptions.parse(r2dbcUrl).mutate();
+            if (!r2dbcUsername.isEmpty()) {
+                options.option(ConnectionFactoryOptions.USER, r2dbcUsername);
+                options.option(ConnectionFactoryOptions.PASSWORD, r2dbcPassword);
+            }
+        } else {
+            options = postgresOptions(resolveDatabaseUrl());
+        }
+
+        // Wrap the driver in r2dbc-pool: r2dbc:<driver>:<protocol> becomes r2dbc:pool:<driver>:<protocol>
+        ConnectionFactoryOptions driverOptions = options.build();
+        String protocol = (String) driverOptions.getRequiredValue(ConnectionFactoryOptions.DRIVER);
+        Object driverProtocol = driverOptions.getValue(ConnectionFactoryOptions.PROTOCOL);
+        if (driverProtocol != null) {
+            protocol += ":" + driverProtocol;
+        }
+        return ConnectionFactories.get(ConnectionFactoryOptions.builder()
+                .from(driverOptions)
+                .option(ConnectionFactoryOptions.DRIVER, "pool")
+                .option(ConnectionFactoryOptions.PROTOCOL, protocol)
+                .option(PoolingConnectionFactoryProvider.MAX_SIZE, maximumPoolSize)
+                .build());
+    }
+
+    /**
+     * Netty event loops instead of Tomcat's reactive adapter, which would otherwise win since both are on the classpath
+     */
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+
+    private String resolveDatabaseUrl() {
+        Dotenv dotenv = Dotenv.configure().ignoreIfMissing().load();
+        String envDatabaseUrl = dotenv.get("DATABASE");
+        return (envDatabaseUrl != null && !envDatabaseUrl.isEmpty()) ? envDatabaseUrl : databaseUrl;
+    }
+
+    private ConnectionFactoryOptions.Builder postgresOptions(String url) {
+        try {
+            URI uri = new URI(url);
+            ConnectionFactoryOptions.Builder options = ConnectionFactoryOptions.builder()
+                    .option(ConnectionFactoryOptions.DRIVER, "postgresql")
+                    .option(ConnectionFactoryOptions.HOST, uri.getHost())
+                    .option(ConnectionFactoryOptions.PORT, uri.getPort() > 0 ? uri.getPort() : 5432)
+                    .option(ConnectionFactoryOptions.DATABASE, uri.getPath().substring(1));
+
+            String userInfo = uri.getUserInfo();
+            if (userInfo != null && userInfo.contains(":")) {
+                String[] credentials = userInfo.split(":");
+                options.option(ConnectionFactoryOptions.USER, credentials[0]);
+                options.option(ConnectionFactoryOptions.PASSWORD, credentials[1]);
+            }
+
+            String query = uri.getQuery();
+            if (query != null && query.contains("ssl=true")) {
+                options.option(ConnectionFactoryOptions.SSL, true);
+            }
+            return options;
+        } catch (URISyntaxException e) {
+            throw new IllegalStateException("Invalid DATABASE url", e);
+        }
+    }
+}
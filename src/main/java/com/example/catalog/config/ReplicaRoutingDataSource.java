@@ -0,0 +1,230 @@
+package com.example.catalog.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sends connections of read-only transactions (@Transactional(readOnly = true)) to the replicas, round
+ * robin, and everything else to the primary. Each target keeps its own pool.
+ *
+ * The physical connection is only taken at the first statement, once the transaction and its read-only
+ * flag are known. A health check runs every check-interval: a replica that cannot be reached, or whose
+ * replication lag exceeds max-staleness, is ejected until a later check passes, and a replica whose pool
+ * fails to hand out a connection is ejected at once. Without an available replica, reads go to the primary.
+ */
+public class ReplicaRoutingDataSource extends LazyConnectionDataSourceProxy implements MeterBinder, Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    private final Target primary;
+    private final List<Replica> replicas = new ArrayList<>();
+    private final AtomicInteger next = new AtomicInteger();
+    private final Duration maxStaleness;
+    private final String lagQuery;
+    private final ScheduledExecutorService checker;
+
+    /**
+     * @param replicas replica pools by name, used as the target tag of the metrics
+     * @param lagQuery returns the replication lag in seconds; when blank only connectivity is checked
+     */
+    public ReplicaRoutingDataSource(DataSource primary, Map<String, DataSource> replicas,
+                                    Duration maxStaleness, Duration checkInterval, String lagQuery) {
+        this.primary = new Target("primary", primary);
+        replicas.forEach((name, dataSource) -> this.replicas.add(new Replica(name, dataSource)));
+        this.maxStaleness = maxStaleness;
+        this.lagQuery = lagQuery;
+        setTargetDataSource(new Router());
+        afterPropertiesSet();
+
+        checkReplicas();
+        checker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-health-check");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = checkInterval.toMillis();
+        checker.scheduleWithFixedDelay(this::checkReplicas, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Check every replica and update whether it may serve reads
+     */
+    void checkReplicas() {
+        for (Replica replica : replicas) {
+            try (Connection connection = replica.dataSource.getConnection()) {
+                replica.lagSeconds = lagQuery == null || lagQuery.isBlank() ? 0 : queryLag(connection);
+                replica.setAvailable(replica.lagSeconds * 1000 <= maxStaleness.toMillis(),
+                        "replication lag " + replica.lagSeconds + "s");
+            } catch (SQLException | RuntimeException e) {
+                replica.lagSeconds = Double.NaN;
+                replica.setAvailable(false, e.getMessage());
+            }
+        }
+    }
+
+    private double queryLag(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet result = statement.executeQuery(lagQuery)) {
+            if (!result.next()) {
+                throw new SQLException("Lag query returned no row");
+            }
+            return result.getDouble(1);
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        primary.bindTo(registry, "true");
+        primary.bindTo(registry, "false");
+        for (Replica replica : replicas) {
+            replica.bindTo(registry, "true");
+            Gauge.builder("catalog.datasource.replica.available", replica, r -> r.available ? 1 : 0)
+                    .description("Whether the replica currently serves read-only transactions")
+                    .tag("target", replica.name)
+                    .register(registry);
+            Gauge.builder("catalog.datasource.replica.lag", replica, r -> r.lagSeconds)
+                    .description("Replication lag seen by the last health check")
+                    .tag("target", replica.name)
+                    .baseUnit("seconds")
+                    .register(registry);
+        }
+    }
+
+    /**
+     * Stop the health check and close every pool
+     */
+    @Override
+    public void close() throws IOException {
+        checker.shutdownNow();
+        for (Replica replica : replicas) {
+            closePool(replica.dataSource);
+        }
+        closePool(primary.dataSource);
+    }
+
+    private static void closePool(DataSource dataSource) throws IOException {
+        if (dataSource instanceof Closeable closeable) {
+            closeable.close();
+        }
+    }
+
+    /**
+     * Connections handed out by a target, counted separately for read-only transactions
+     */
+    long getConnections(String target, boolean readOnly) {
+        Target counted = primary.name.equals(target) ? primary
+                : replicas.stream().filter(replica -> replica.name.equals(target)).findFirst().orElseThrow();
+        return (readOnly ? counted.readOnly : counted.readWrite).sum();
+    }
+
+    /**
+     * Picks the target when the lazy proxy needs a physical connection
+     */
+    private class Router extends AbstractDataSource {
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return route(null, null);
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return route(username, password);
+        }
+
+        /**
+         * Connection from the chosen target, with the pool's own credentials unless a username is given
+         */
+        private Connection route(String username, String password) throws SQLException {
+            if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+                return primary.connect(false, username, password);
+            }
+            int start = Math.floorMod(next.getAndIncrement(), Math.max(replicas.size(), 1));
+            for (int i = 0; i < replicas.size(); i++) {
+                Replica replica = replicas.get((start + i) % replicas.size());
+                if (!replica.available) {
+                    continue;
+                }
+                try {
+                    return replica.connect(true, username, password);
+                } catch (SQLException e) {
+                    replica.setAvailable(false, e.getMessage());
+                }
+            }
+            return primary.connect(true, username, password);
+        }
+    }
+
+    private static class Target {
+
+        final String name;
+        final DataSource dataSource;
+        final LongAdder readOnly = new LongAdder();
+        final LongAdder readWrite = new LongAdder();
+
+        Target(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+
+        Connection connect(boolean readOnlyTransaction, String username, String password) throws SQLException {
+            Connection connection = username == null ? dataSource.getConnection()
+                    : dataSource.getConnection(username, password);
+            (readOnlyTransaction ? readOnly : readWrite).increment();
+            return connection;
+        }
+
+        void bindTo(MeterRegistry registry, String readOnlyTag) {
+            FunctionCounter.builder("catalog.datasource.connections", "true".equals(readOnlyTag) ? readOnly : readWrite, LongAdder::sum)
+                    .description("Connections taken from each routing target")
+                    .tags("target", name, "read-only", readOnlyTag)
+                    .register(registry);
+        }
+    }
+
+    private static class Replica extends Target {
+
+        // Settled by the first check, before any connection is routed
+        volatile boolean available = true;
+        volatile double lagSeconds = Double.NaN;
+
+        Replica(String name, DataSource dataSource) {
+            super(name, dataSource);
+        }
+
+        void setAvailable(boolean available, String reason) {
+            if (this.available != available) {
+                if (available) {
+                    logger.info("Replica {} is back in the read rotation", name);
+                } else {
+                    logger.warn("Replica {} removed from the read rotation: {}", name, reason);
+                }
+            }
+            this.available = available;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.catalog.config;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+import java.util.List;
+
+/**
+ * /actuator/slowqueries: the slowest SQL statements since startup or the last reset, slowest first.
+ * Read-only; the reset is {@link SlowQueryResetEndpoint}, over JMX.
+ */
+@Endpoint(id = "slowqueries")
+public class SlowQueryEndpoint {
+
+    private final SqlDiagnostics sqlDiagnostics;
+
+    public SlowQueryEndpoint(SqlDiagnostics sqlDiagnostics) {
+        this.sqlDiagnostics = sqlDiagnostics;
+    }
+
+    @ReadOperation
+    public List<SqlDiagnostics.SlowQuery> slowQueries() {
+        return sqlDiagnostics.getSlowQueries();
+    }
+}
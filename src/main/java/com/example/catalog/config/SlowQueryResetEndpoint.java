@@ -0,0 +1,23 @@
+package com.example.catalog.config;
+
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.jmx.annotation.JmxEndpoint;
+
+/**
+ * slowqueriesreset operation: empties the slow statements kept for /actuator/slowqueries.
+ * JMX only (spring.jmx.enabled=true), so the list cannot be wiped over HTTP.
+ */
+@JmxEndpoint(id = "slowqueriesreset")
+public class SlowQueryResetEndpoint {
+
+    private final SqlDiagnostics sqlDiagnostics;
+
+    public SlowQueryResetEndpoint(SqlDiagnostics sqlDiagnostics) {
+        this.sqlDiagnostics = sqlDiagnostics;
+    }
+
+    @DeleteOperation
+    public void clear() {
+        sqlDiagnostics.clearSlowQueries();
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.catalog.config;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.StringJoiner;
+
+/**
+ * Listens to every JDBC statement run through the proxied DataSource (see SqlDiagnosticsConfig).
+ * Statements are counted into the Scope open on the current thread (one per HTTP request, or one opened by a test),
+ * and of the statements slower than the slow-query threshold the slowest bufferSize are kept (since startup or the
+ * last reset) in a min-heap by duration, with the types of their bind parameters but never their values.
+ */
+public class SqlDiagnostics implements QueryExecutionListener {
+
+    private final ThreadLocal<Scope> currentScope = new ThreadLocal<>();
+    private final long slowQueryMillis;
+    private final int bufferSize;
+    // Fastest kept statement at the head, so a slower one replaces it in O(log n)
+    private final PriorityQueue<SlowQuery> slowQueries;
+
+    public SqlDiagnostics(Duration slowQuery, int bufferSize) {
+        this.slowQueryMillis = slowQuery.toMillis();
+        this.bufferSize = bufferSize;
+        this.slowQueries = new PriorityQueue<>(bufferSize, Comparator.comparingLong(SlowQuery::durationMillis));
+    }
+
+    /**
+     * Start counting the statements run on this thread until the returned scope is closed.
+     * Scopes nest: statements are counted in every open scope.
+     */
+    public Scope begin() {
+        Scope scope = new Scope(currentScope.get());
+        currentScope.set(scope);
+        return scope;
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        long elapsed = execInfo.getElapsedTime();
+        for (Scope scope = currentScope.get(); scope != null; scope = scope.parent) {
+            scope.statements++;
+            scope.sqlMillis += elapsed;
+        }
+        if (elapsed >= slowQueryMillis && !queryInfoList.isEmpty()) {
+            QueryInfo query = queryInfoList.get(0);
+            SlowQuery slowQuery = new SlowQuery(query.getQuery(), parameterShape(query),
+                    execInfo.isBatch() ? execInfo.getBatchSize() : 0, elapsed,
+                    PerformanceMetricsAspect.currentEndpoint(), LocalDateTime.now());
+            synchronized (slowQueries) {
+                if (slowQueries.size() < bufferSize) {
+                    slowQueries.add(slowQuery);
+                } else if (bufferSize > 0 && elapsed > slowQueries.peek().durationMillis()) {
+                    slowQueries.poll();
+                    slowQueries.add(slowQuery);
+                }
+            }
+        }
+    }
+
+    /**
+     * The slowest statements kept, slowest first
+     */
+    public List<SlowQuery> getSlowQueries() {
+        List<SlowQuery> queries;
+        synchronized (slowQueries) {
+            queries = new ArrayList<>(slowQueries);
+        }
+        queries.sort(Comparator.comparingLong(SlowQuery::durationMillis).reversed());
+        return queries;
+    }
+
+    public void clearSlowQueries() {
+        synchronized (slowQueries) {
+            slowQueries.clear();
+        }
+    }
+
+    /**
+     * Parameter types of the first parameter set, e.g. [Long, String, null]
+     */
+    private static String parameterShape(QueryInfo query) {
+        StringJoiner shape = new StringJoiner(", ", "[", "]");
+        if (query.getParametersList().isEmpty()) {
+            return shape.toString();
+        }
+        List<ParameterSetOperation> parameters = new ArrayList<>(query.getParametersList().get(0));
+        parameters.sort(Comparator.comparingInt(parameter ->
+                parameter.getArgs()[0] instanceof Integer index ? index : Integer.MAX_VALUE));
+        for (ParameterSetOperation parameter : parameters) {
+            Object[] args = parameter.getArgs();
+            if (ParameterSetOperation.isSetNullParameterOperation(parameter) || args.length < 2 || args[1] == null) {
+                shape.add("null");
+            } else {
+                shape.add(args[1].getClass().getSimpleName());
+            }
+        }
+        return shape.toString();
+    }
+
+    /**
+     * Statements run on one thread while the scope was open
+     */
+    public class Scope implements AutoCloseable {
+
+        private final Scope parent;
+        private final long startNanos = System.nanoTime();
+        private long statements;
+        private long sqlMillis;
+
+        private Scope(Scope parent) {
+            this.parent = parent;
+        }
+
+        public long getStatements() {
+            return statements;
+        }
+
+        public long getSqlMillis() {
+            return sqlMillis;
+        }
+
+        public Duration getElapsed() {
+            return Duration.ofNanos(System.nanoTime() - startNanos);
+        }
+
+        @Override
+        public void close() {
+            if (parent == null) {
+                currentScope.remove();
+            } else {
+                currentScope.set(parent);
+            }
+        }
+    }
+
+    /**
+     * A statement slower than the threshold; batchSize is 0 for statements that were not batched
+     */
+    public record SlowQuery(String sql, String parameters, int batchSize, long durationMillis,
+                            String endpoint, LocalDateTime executedAt) {}
+}
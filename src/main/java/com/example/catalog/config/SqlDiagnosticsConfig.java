@@ -0,0 +1,77 @@
+package com.example.catalog.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Wraps the application DataSource (DatabaseConfig.dataSource()) in a datasource-proxy that reports
+ * every statement to SqlDiagnostics, and registers the per-request filter and the slowqueries endpoint
+ */
+@Configuration
+@ConditionalOnProperty(name = "catalog.sql-diagnostics.enabled", havingValue = "true", matchIfMissing = true)
+public class SqlDiagnosticsConfig {
+
+    @Value("${catalog.sql-diagnostics.max-statements-per-request:20}")
+    private long maxStatementsPerRequest;
+
+    @Value("${catalog.sql-diagnostics.slow-request:1s}")
+    private Duration slowRequest;
+
+    @Bean
+    public SqlDiagnostics sqlDiagnostics(@Value("${catalog.sql-diagnostics.slow-query:100ms}") Duration slowQuery,
+                                         @Value("${catalog.sql-diagnostics.slow-query-buffer-size:100}") int bufferSize) {
+        return new SqlDiagnostics(slowQuery, bufferSize);
+    }
+
+    // Static, so that post-processing DataSources does not depend on creating this configuration first
+    @Bean
+    public static BeanPostProcessor sqlDiagnosticsDataSourcePostProcessor(ObjectProvider<SqlDiagnostics> sqlDiagnostics) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof ProxyDataSource)) {
+                    return ProxyDataSourceBuilder.create(dataSource)
+                            .name(beanName)
+                            .listener(sqlDiagnostics.getObject())
+                            .build();
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public SlowQueryEndpoint slowQueryEndpoint(SqlDiagnostics sqlDiagnostics) {
+        return new SlowQueryEndpoint(sqlDiagnostics);
+    }
+
+    @Bean
+    public SlowQueryResetEndpoint slowQueryResetEndpoint(SqlDiagnostics sqlDiagnostics) {
+        return new SlowQueryResetEndpoint(sqlDiagnostics);
+    }
+
+    @Bean
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    public FilterRegistrationBean<SqlDiagnosticsFilter> sqlDiagnosticsFilter(SqlDiagnostics sqlDiagnostics,
+                                                                            MeterRegistry meterRegistry) {
+        SqlDiagnosticsFilter filter = new SqlDiagnosticsFilter(sqlDiagnostics, meterRegistry,
+                maxStatementsPerRequest, slowRequest);
+        FilterRegistrationBean<SqlDiagnosticsFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.addUrlPatterns("/api/*");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 40);
+        return registration;
+    }
+}
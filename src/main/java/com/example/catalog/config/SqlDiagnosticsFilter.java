@@ -0,0 +1,69 @@
+package com.example.catalog.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Counts the SQL statements of each API request (catalog.sql.statements) and logs a warning for requests
+ * that run more statements than allowed (a likely N+1) or take longer than the slow-request threshold.
+ * Statements run by streamed responses after the request thread returns are not counted.
+ */
+public class SqlDiagnosticsFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(SqlDiagnosticsFilter.class);
+
+    private final SqlDiagnostics sqlDiagnostics;
+    private final MeterRegistry meterRegistry;
+    private final long maxStatements;
+    private final Duration slowRequest;
+
+    public SqlDiagnosticsFilter(SqlDiagnostics sqlDiagnostics, MeterRegistry meterRegistry,
+                                long maxStatements, Duration slowRequest) {
+        this.sqlDiagnostics = sqlDiagnostics;
+        this.meterRegistry = meterRegistry;
+        this.maxStatements = maxStatements;
+        this.slowRequest = slowRequest;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        try (SqlDiagnostics.Scope scope = sqlDiagnostics.begin()) {
+            filterChain.doFilter(request, response);
+
+            String endpoint = PerformanceMetricsAspect.endpoint(request);
+            DistributionSummary.builder("catalog.sql.statements")
+                    .description("JDBC statements executed per API request")
+                    .tag("endpoint", endpoint)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry)
+                    .record(scope.getStatements());
+
+            Duration elapsed = scope.getElapsed();
+            String reason = scope.getStatements() > maxStatements ? "statements"
+                    : elapsed.compareTo(slowRequest) > 0 ? "duration" : null;
+            if (reason != null) {
+                Counter.builder("catalog.sql.flagged")
+                        .description("API requests over the statement or duration limit")
+                        .tag("endpoint", endpoint)
+                        .tag("reason", reason)
+                        .register(meterRegistry)
+                        .increment();
+                logger.warn("{} {} ran {} SQL statements ({} ms in SQL) in {} ms",
+                        request.getMethod(), request.getRequestURI(), scope.getStatements(),
+                        scope.getSqlMillis(), elapsed.toMillis());
+            }
+        }
+    }
+}
@@ -1,49 +1,125 @@
 package com.example.catalog.controller;
 
+import com.example.catalog.dto.BulkResultDto;
+import com.example.catalog.dto.BulkUpdateProductDto;
+import com.example.catalog.config.JacksonConfig;
+import com.example.catalog.dto.CategoryStatsDto;
+import com.example.catalog.dto.CompactPageDto;
 import com.example.catalog.dto.CreateProductDto;
+import com.example.catalog.dto.CursorPageDto;
+import com.example.catalog.dto.ImportResultDto;
 import com.example.catalog.dto.ProductDto;
+import com.example.catalog.dto.ProductPatchDto;
+import com.example.catalog.dto.StockAdjustmentDto;
+import com.example.catalog.dto.StockItemDto;
+import com.example.catalog.dto.StockLevelDto;
 import com.example.catalog.dto.UpdateProductDto;
+import com.example.catalog.service.ProductExportService;
+import com.example.catalog.service.ProductFields;
+import com.example.catalog.service.ProductFileFormat;
+import com.example.catalog.service.ProductImportService;
 import com.example.catalog.service.ProductService;
+import com.example.catalog.service.StockWriteBehindBuffer;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.data.domain.Page;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJacksonValue;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/products")
 @CrossOrigin(origins = "*")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class ProductController {
 
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    static final String PAGE_ENVELOPE = "page";
+    static final String COMPACT_ENVELOPE = "compact";
+
     @Autowired
     private ProductService productService;
 
+    @Autowired
+    private ProductExportService productExportService;
+
+    @Autowired
+    private ProductImportService productImportService;
+
+    // Present only with catalog.stock.write-behind.enabled=true
+    @Autowired(required = false)
+    private StockWriteBehindBuffer stockWriteBehindBuffer;
+
     /**
-     * Get all products with pagination
+     * Get all products with pagination.
+     * fields (e.g. fields=id,name,price) reads and writes only the listed properties;
+     * envelope=compact replaces the Page metadata with page, size, totalElements and totalPages.
      */
     @GetMapping
-    public ResponseEntity<Page<ProductDto>> getAllProducts(
+    public ResponseEntity<MappingJacksonValue> getAllProducts(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "name") String sortBy,
-            @RequestParam(defaultValue = "asc") String sortDir) {
-        
-        Page<ProductDto> products = productService.getAllProducts(page, size, sortBy, sortDir);
-        return ResponseEntity.ok(products);
+            @RequestParam(defaultValue = "asc") String sortDir,
+            @RequestParam(required = false) String fields,
+            @RequestParam(defaultValue = PAGE_ENVELOPE) String envelope) {
+
+        boolean compact = isCompact(envelope);
+        List<String> selected = parseFields(fields);
+        Page<ProductDto> products = selected == null
+                ? productService.getAllProducts(page, size, sortBy, sortDir)
+                : productService.getAllProducts(page, size, sortBy, sortDir, selected);
+        return pageResponse(products, selected, compact);
     }
 
     /**
-     * Get product by ID
+     * Get all products with keyset pagination (opt-in via the cursor parameter, empty for the first page).
+     * Results are always ordered by name; no total count is computed.
+     */
+    @GetMapping(params = "cursor")
+    public ResponseEntity<MappingJacksonValue> getAllProductsAfter(
+            @RequestParam String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "name") String sortBy,
+            @RequestParam(defaultValue = "asc") String sortDir,
+            @RequestParam(required = false) String fields) {
+
+        if (!sortBy.equals("name") || !sortDir.equalsIgnoreCase("asc")) {
+            throw new IllegalArgumentException("Cursor pagination only supports sortBy=name and sortDir=asc");
+        }
+        List<String> selected = parseFields(fields);
+        CursorPageDto<ProductDto> products = productService.getAllProductsAfter(cursor, size);
+        return cursorPageResponse(products, selected);
+    }
+
+    /**
+     * Get product by ID. ETag and Last-Modified come from the returned product itself, so validators and
+     * body always describe the same read; conditional requests are answered without serializing it.
      */
     @GetMapping("/{id}")
-    public ResponseEntity<ProductDto> getProductById(@PathVariable Long id) {
+    public ResponseEntity<ProductDto> getProductById(@PathVariable Long id, WebRequest webRequest) {
         Optional<ProductDto> product = productService.getProductById(id);
-        return product.map(ResponseEntity::ok)
-                .orElse(ResponseEntity.notFound().build());
+        if (product.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        // Sets ETag and Last-Modified on the response, and the 304 status when the client copy is current
+        if (webRequest.checkNotModified(ProductETags.forProduct(id, product.get().getVersion()),
+                ProductETags.lastModified(product.get().getUpdatedAt()))) {
+            return null;
+        }
+        return ResponseEntity.ok(product.get());
     }
 
     /**
@@ -56,13 +132,30 @@ public class ProductController {
     }
 
     /**
-     * Update an existing product
+     * Update an existing product; with If-Match, only if the product is still at that version (412 otherwise)
      */
     @PutMapping("/{id}")
-    public ResponseEntity<ProductDto> updateProduct(@PathVariable Long id, 
+    public ResponseEntity<ProductDto> updateProduct(@PathVariable Long id,
+                                                   @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
                                                    @Valid @RequestBody UpdateProductDto updateProductDto) {
-        Optional<ProductDto> updatedProduct = productService.updateProduct(id, updateProductDto);
-        return updatedProduct.map(ResponseEntity::ok)
+        Optional<ProductDto> updatedProduct = productService.updateProduct(id, updateProductDto,
+                ProductETags.acceptedVersions(id, ifMatch));
+        return updatedProduct.map(ProductController::withVersion)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Partially update a product with a JSON merge patch: absent properties are kept, null ones cleared.
+     * Writes only the changed columns and nothing at all when no value changes. Honors If-Match like PUT;
+     * a concurrent write between the read and the UPDATE answers 409.
+     */
+    @PatchMapping(value = "/{id}", consumes = {"application/merge-patch+json", MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<ProductDto> patchProduct(@PathVariable Long id,
+                                                  @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                                  @Valid @RequestBody ProductPatchDto patch) {
+        Optional<ProductDto> patchedProduct = productService.patchProduct(id, patch,
+                ProductETags.acceptedVersions(id, ifMatch));
+        return patchedProduct.map(ProductController::withVersion)
                 .orElse(ResponseEntity.notFound().build());
     }
 
@@ -75,30 +168,161 @@ public class ProductController {
         return deleted ? ResponseEntity.noContent().build() : ResponseEntity.notFound().build();
     }
 
+    /**
+     * Create many products in JDBC batches; invalid items are reported per index
+     */
+    @PostMapping("/bulk")
+    public ResponseEntity<BulkResultDto> bulkCreateProducts(@RequestBody List<CreateProductDto> items) {
+        BulkResultDto result = productService.bulkCreateProducts(items);
+        return ResponseEntity.ok(result);
+    }
+
+    /**
+     * Update many products in JDBC batches; each item carries its id
+     */
+    @PutMapping("/bulk")
+    public ResponseEntity<BulkResultDto> bulkUpdateProducts(@RequestBody List<BulkUpdateProductDto> items) {
+        BulkResultDto result = productService.bulkUpdateProducts(items);
+        return ResponseEntity.ok(result);
+    }
+
+    /**
+     * Delete many products by id
+     */
+    @DeleteMapping("/bulk")
+    public ResponseEntity<BulkResultDto> bulkDeleteProducts(@RequestBody List<Long> ids) {
+        BulkResultDto result = productService.bulkDeleteProducts(ids);
+        return ResponseEntity.ok(result);
+    }
+
+    /**
+     * Add delta (negative to remove) to the stock of a product and return the new level;
+     * 409 when the stock would go negative
+     */
+    @PostMapping("/{id}/stock/adjust")
+    public ResponseEntity<StockLevelDto> adjustStock(@PathVariable Long id,
+                                                     @Valid @RequestBody StockAdjustmentDto adjustment) {
+        Optional<StockLevelDto> level = stockWriteBehindBuffer != null
+                ? stockWriteBehindBuffer.adjustStock(id, adjustment.getDelta())
+                : productService.adjustStock(id, adjustment.getDelta());
+        return level.map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Take the given quantities from several products at once; nothing is reserved unless every
+     * product has enough stock (409 otherwise)
+     */
+    @PostMapping("/stock/reserve")
+    public ResponseEntity<List<StockLevelDto>> reserveStock(@RequestBody List<StockItemDto> items) {
+        List<StockLevelDto> levels = stockWriteBehindBuffer != null
+                ? stockWriteBehindBuffer.reserveStock(items)
+                : productService.reserveStock(items);
+        return ResponseEntity.ok(levels);
+    }
+
+    /**
+     * Give back the given quantities to several products at once
+     */
+    @PostMapping("/stock/release")
+    public ResponseEntity<List<StockLevelDto>> releaseStock(@RequestBody List<StockItemDto> items) {
+        List<StockLevelDto> levels = stockWriteBehindBuffer != null
+                ? stockWriteBehindBuffer.releaseStock(items)
+                : productService.releaseStock(items);
+        return ResponseEntity.ok(levels);
+    }
+
     /**
      * Search products by name or description
      */
     @GetMapping("/search")
-    public ResponseEntity<Page<ProductDto>> searchProducts(
+    public ResponseEntity<MappingJacksonValue> searchProducts(
             @RequestParam String q,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
-        
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String fields,
+            @RequestParam(defaultValue = PAGE_ENVELOPE) String envelope) {
+
+        boolean compact = isCompact(envelope);
+        List<String> selected = parseFields(fields);
         Page<ProductDto> products = productService.searchProducts(q, page, size);
-        return ResponseEntity.ok(products);
+        return pageResponse(products, selected, compact);
+    }
+
+    /**
+     * Search products by name or description with keyset pagination
+     */
+    @GetMapping(value = "/search", params = "cursor")
+    public ResponseEntity<MappingJacksonValue> searchProductsAfter(
+            @RequestParam String q,
+            @RequestParam String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String fields) {
+
+        List<String> selected = parseFields(fields);
+        CursorPageDto<ProductDto> products = productService.searchProductsAfter(q, cursor, size);
+        return cursorPageResponse(products, selected);
     }
 
     /**
      * Get products by category
      */
     @GetMapping("/category/{category}")
-    public ResponseEntity<Page<ProductDto>> getProductsByCategory(
+    public ResponseEntity<MappingJacksonValue> getProductsByCategory(
             @PathVariable String category,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
-        
-        Page<ProductDto> products = productService.getProductsByCategory(category, page, size);
-        return ResponseEntity.ok(products);
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String fields,
+            @RequestParam(defaultValue = PAGE_ENVELOPE) String envelope) {
+
+        boolean compact = isCompact(envelope);
+        List<String> selected = parseFields(fields);
+        Page<ProductDto> products = selected == null
+                ? productService.getProductsByCategory(category, page, size)
+                : productService.getProductsByCategory(category, page, size, selected);
+        return pageResponse(products, selected, compact);
+    }
+
+    /**
+     * Get products by category with keyset pagination
+     */
+    @GetMapping(value = "/category/{category}", params = "cursor")
+    public ResponseEntity<MappingJacksonValue> getProductsByCategoryAfter(
+            @PathVariable String category,
+            @RequestParam String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String fields) {
+
+        List<String> selected = parseFields(fields);
+        CursorPageDto<ProductDto> products = productService.getProductsByCategoryAfter(category, cursor, size);
+        return cursorPageResponse(products, selected);
+    }
+
+    /**
+     * Stream the whole catalog as NDJSON (default) or CSV
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportProducts(@RequestParam(defaultValue = "ndjson") String format) {
+        ProductFileFormat fileFormat = ProductFileFormat.fromParameter(format);
+        StreamingResponseBody body = outputStream -> productExportService.exportProducts(fileFormat, outputStream);
+
+        return ResponseEntity.ok()
+                .contentType(fileFormat.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"products." + fileFormat.getExtension() + "\"")
+                .body(body);
+    }
+
+    /**
+     * Import products from an NDJSON (default) or CSV body, written in chunks
+     */
+    @PostMapping("/import")
+    public ResponseEntity<ImportResultDto> importProducts(
+            @RequestParam(defaultValue = "ndjson") String format,
+            InputStream body) throws IOException {
+
+        ProductFileFormat fileFormat = ProductFileFormat.fromParameter(format);
+        ImportResultDto result = productImportService.importProducts(fileFormat, body);
+        return ResponseEntity.ok(result);
     }
 
     /**
@@ -107,17 +331,124 @@ public class ProductController {
     @GetMapping("/categories")
     public ResponseEntity<List<String>> getAllCategories() {
         List<String> categories = productService.getAllCategories();
-        return ResponseEntity.ok(categories);
+        return ResponseEntity.ok()
+                .eTag(ProductETags.forValues(categories))
+                .body(categories);
     }
 
     /**
-     * Get products with low stock
+     * Get product count, total stock and price range per category
+     */
+    @GetMapping("/categories/stats")
+    public ResponseEntity<List<CategoryStatsDto>> getCategoryStats() {
+        List<CategoryStatsDto> stats = productService.getCategoryStats();
+        return ResponseEntity.ok()
+                .eTag(ProductETags.forCategoryStats(stats))
+                .body(stats);
+    }
+
+    /**
+     * Get products with low stock, lowest stock first. Returns at most catalog.low-stock.max-page-size products;
+     * when more exist, the X-Next-Cursor header carries the cursor to continue with keyset pagination.
      */
     @GetMapping("/low-stock")
-    public ResponseEntity<List<ProductDto>> getProductsWithLowStock(
-            @RequestParam(defaultValue = "5") Integer threshold) {
-        
-        List<ProductDto> products = productService.getProductsWithLowStock(threshold);
-        return ResponseEntity.ok(products);
+    public ResponseEntity<MappingJacksonValue> getProductsWithLowStock(
+            @RequestParam(defaultValue = "5") Integer threshold,
+            @RequestParam(required = false) String fields) {
+
+        List<String> selected = parseFields(fields);
+        CursorPageDto<ProductDto> products = productService.getProductsWithLowStockAfter(threshold, "", productService.getLowStockMaxPageSize());
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .eTag(ProductETags.forProducts(products.getContent(), threshold, products.getNextCursor(), selected));
+        if (products.isHasNext()) {
+            response.header(NEXT_CURSOR_HEADER, products.getNextCursor());
+        }
+        return response.body(withFields(products.getContent(), selected));
+    }
+
+    /**
+     * Get products with low stock with keyset pagination ordered by (stock, id)
+     */
+    @GetMapping(value = "/low-stock", params = "cursor")
+    public ResponseEntity<MappingJacksonValue> getProductsWithLowStockAfter(
+            @RequestParam(defaultValue = "5") Integer threshold,
+            @RequestParam String cursor,
+            @RequestParam(defaultValue = "100") int size,
+            @RequestParam(required = false) String fields) {
+
+        List<String> selected = parseFields(fields);
+        CursorPageDto<ProductDto> products = productService.getProductsWithLowStockAfter(threshold, cursor, size);
+        return cursorPageResponse(products, selected);
+    }
+
+    /**
+     * Stream every product with low stock as NDJSON or CSV, without a row limit
+     */
+    @GetMapping(value = "/low-stock", params = "format")
+    public ResponseEntity<StreamingResponseBody> exportProductsWithLowStock(
+            @RequestParam(defaultValue = "5") Integer threshold,
+            @RequestParam String format) {
+
+        ProductFileFormat fileFormat = ProductFileFormat.fromParameter(format);
+        // Validate before the response is committed; errors while streaming can no longer change the status
+        ProductService.checkLowStockThreshold(threshold);
+        StreamingResponseBody body = outputStream -> productExportService.exportProductsWithLowStock(threshold, fileFormat, outputStream);
+
+        return ResponseEntity.ok()
+                .contentType(fileFormat.getMediaType())
+                .body(body);
+    }
+
+    /**
+     * 200 response carrying a weak ETag; Spring answers 304 itself when it matches If-None-Match.
+     * The selected fields and the envelope are part of the ETag, since they change the representation.
+     */
+    private ResponseEntity<MappingJacksonValue> pageResponse(Page<ProductDto> products, List<String> fields, boolean compact) {
+        String eTag = ProductETags.forProducts(products.getContent(), products.getNumber(), products.getSize(),
+                products.getTotalElements(), products.getSort(), fields, compact);
+        Object body = compact
+                ? new CompactPageDto<>(products.getContent(), products.getNumber(), products.getSize(),
+                        products.getTotalElements(), products.getTotalPages())
+                : products;
+        return ResponseEntity.ok().eTag(eTag).body(withFields(body, fields));
+    }
+
+    private ResponseEntity<MappingJacksonValue> cursorPageResponse(CursorPageDto<ProductDto> products, List<String> fields) {
+        String eTag = ProductETags.forProducts(products.getContent(), products.getSize(), products.getNextCursor(), fields);
+        return ResponseEntity.ok().eTag(eTag).body(withFields(products, fields));
+    }
+
+    /**
+     * Wrap a response body so that Jackson writes only the selected ProductDto properties (all when fields is null)
+     */
+    private static MappingJacksonValue withFields(Object body, List<String> fields) {
+        MappingJacksonValue value = new MappingJacksonValue(body);
+        if (fields != null) {
+            value.setFilters(JacksonConfig.selectedFields(fields));
+        }
+        return value;
+    }
+
+    /**
+     * 200 with the product's new ETag, so the client can send it as If-Match on its next write
+     */
+    private static ResponseEntity<ProductDto> withVersion(ProductDto product) {
+        return ResponseEntity.ok()
+                .eTag(ProductETags.forProduct(product.getId(), product.getVersion()))
+                .body(product);
+    }
+
+    private static List<String> parseFields(String fields) {
+        return fields == null ? null : ProductFields.parse(fields);
+    }
+
+    private static boolean isCompact(String envelope) {
+        if (envelope.equals(COMPACT_ENVELOPE)) {
+            return true;
+        }
+        if (!envelope.equals(PAGE_ENVELOPE)) {
+            throw new IllegalArgumentException("envelope must be '" + PAGE_ENVELOPE + "' or '" + COMPACT_ENVELOPE + "'");
+        }
+        return false;
     }
 }
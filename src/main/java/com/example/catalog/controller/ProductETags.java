@@ -0,0 +1,110 @@
+package com.example.catalog.controller;
+
+import com.example.catalog.dto.CategoryStatsDto;
+import com.example.catalog.dto.ProductDto;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * ETag and Last-Modified values. A single product has a strong ETag built from its version column,
+ * which every UPDATE increments, so it also serves If-Match on writes.
+ * List ETags are derived from Product.updatedAt, which changes on every write (@UpdateTimestamp and the
+ * update_products_updated_at trigger). They are weak: they identify the content, not the bytes, and
+ * Tomcat only compresses responses without a strong ETag.
+ */
+final class ProductETags {
+
+    private ProductETags() {}
+
+    /**
+     * Strong ETag for one product version
+     */
+    static String forProduct(Long id, Long version) {
+        return "\"" + id + "-" + version + "\"";
+    }
+
+    /**
+     * Versions of the product accepted by an If-Match header, or null when any version is (no header or *).
+     * Weak and foreign ETags never match, as If-Match requires a strong comparison.
+     */
+    static List<Long> acceptedVersions(Long id, String ifMatch) {
+        if (ifMatch == null || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String prefix = "\"" + id + "-";
+        List<Long> versions = new ArrayList<>();
+        for (String eTag : ifMatch.split(",")) {
+            String candidate = eTag.trim();
+            if (candidate.startsWith(prefix) && candidate.endsWith("\"") && candidate.length() > prefix.length() + 1) {
+                try {
+                    versions.add(Long.parseLong(candidate.substring(prefix.length(), candidate.length() - 1)));
+                } catch (NumberFormatException e) {
+                    // Not one of ours: cannot match
+                }
+            }
+        }
+        return versions;
+    }
+
+    /**
+     * Weak ETag for a list response: digest of the response metadata and of every item's id and version
+     */
+    static String forProducts(Collection<ProductDto> products, Object... metadata) {
+        StringBuilder versions = new StringBuilder();
+        for (Object part : metadata) {
+            versions.append(part).append('|');
+        }
+        for (ProductDto product : products) {
+            versions.append(product.getId()).append(':').append(version(product.getUpdatedAt())).append(';');
+        }
+        return digest(versions);
+    }
+
+    /**
+     * Weak ETag for the category statistics: every summary row carries its own refresh time
+     */
+    static String forCategoryStats(Collection<CategoryStatsDto> stats) {
+        StringBuilder versions = new StringBuilder();
+        for (CategoryStatsDto category : stats) {
+            versions.append(category.getCategory()).append(':').append(version(category.getUpdatedAt())).append(';');
+        }
+        return digest(versions);
+    }
+
+    /**
+     * Weak ETag for a list of plain values
+     */
+    static String forValues(Collection<?> values) {
+        StringBuilder content = new StringBuilder();
+        for (Object value : values) {
+            content.append(value).append('\n');
+        }
+        return digest(content);
+    }
+
+    /**
+     * Last-Modified timestamp; LocalDateTime values are read in the JVM time zone
+     */
+    static long lastModified(LocalDateTime updatedAt) {
+        return updatedAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static String version(LocalDateTime updatedAt) {
+        if (updatedAt == null) {
+            return "0";
+        }
+        // Microseconds: the precision Postgres keeps for timestamps
+        return Long.toString(updatedAt.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + updatedAt.getNano() / 1_000);
+    }
+
+    private static String digest(CharSequence content) {
+        return "W/\"" + DigestUtils.md5DigestAsHex(content.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.catalog.controller;
+
+import com.example.catalog.dto.CreateProductDto;
+import com.example.catalog.dto.ProductDto;
+import com.example.catalog.dto.UpdateProductDto;
+import com.example.catalog.service.ReactiveProductService;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.data.domain.Page;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * WebFlux version of {@link ProductController}, active when WEB_STACK=reactive.
+ * Serves the same routes for single-item CRUD, listing, search, categories, low stock and NDJSON export.
+ */
+@RestController
+@RequestMapping("/api/products")
+@CrossOrigin(origins = "*")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveProductController {
+
+    @Autowired
+    private ReactiveProductService productService;
+
+    /**
+     * Get all products with pagination
+     */
+    @GetMapping
+    public Mono<ResponseEntity<Page<ProductDto>>> getAllProducts(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "name") String sortBy,
+            @RequestParam(defaultValue = "asc") String sortDir) {
+
+        return productService.getAllProducts(page, size, sortBy, sortDir)
+                .map(ResponseEntity::ok);
+    }
+
+    /**
+     * Get product by ID
+     */
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<ProductDto>> getProductById(@PathVariable Long id) {
+        return productService.getProductById(id)
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Create a new product
+     */
+    @PostMapping
+    public Mono<ResponseEntity<ProductDto>> createProduct(@Valid @RequestBody CreateProductDto createProductDto) {
+        return productService.createProduct(createProductDto)
+                .map(createdProduct -> ResponseEntity.status(HttpStatus.CREATED).body(createdProduct));
+    }
+
+    /**
+     * Update an existing product
+     */
+    @PutMapping("/{id}")
+    public Mono<ResponseEntity<ProductDto>> updateProduct(@PathVariable Long id,
+                                                          @Valid @RequestBody UpdateProductDto updateProductDto) {
+        return productService.updateProduct(id, updateProductDto)
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Delete a product by ID
+     */
+    @DeleteMapping("/{id}")
+    public Mono<ResponseEntity<Void>> deleteProduct(@PathVariable Long id) {
+        return productService.deleteProduct(id)
+                .map(deleted -> deleted ? ResponseEntity.noContent().<Void>build() : ResponseEntity.notFound().<Void>build());
+    }
+
+    /**
+     * Search products by name or description
+     */
+    @GetMapping("/search")
+    public Mono<ResponseEntity<Page<ProductDto>>> searchProducts(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size) {
+
+        return productService.searchProducts(q, page, size)
+                .map(ResponseEntity::ok);
+    }
+
+    /**
+     * Get products by category
+     */
+    @GetMapping("/category/{category}")
+    public Mono<ResponseEntity<Page<ProductDto>>> getProductsByCategory(
+            @PathVariable String category,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size) {
+
+        return productService.getProductsByCategory(category, page, size)
+                .map(ResponseEntity::ok);
+    }
+
+    /**
+     * Stream the whole catalog as NDJSON
+     */
+    @GetMapping(value = "/export", produces = "application/x-ndjson")
+    public ResponseEntity<Flux<ProductDto>> exportProducts() {
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"products.ndjson\"")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(productService.exportProducts());
+    }
+
+    /**
+     * Get all categories
+     */
+    @GetMapping("/categories")
+    public Mono<ResponseEntity<List<String>>> getAllCategories() {
+        return productService.getAllCategories()
+                .collectList()
+                .map(ResponseEntity::ok);
+    }
+
+    /**
+     * Get products with low stock
+     */
+    @GetMapping("/low-stock")
+    public Mono<ResponseEntity<List<ProductDto>>> getProductsWithLowStock(
+            @RequestParam(defaultValue = "5") Integer threshold) {
+
+        return productService.getProductsWithLowStock(threshold)
+                .collectList()
+                .map(ResponseEntity::ok);
+    }
+}
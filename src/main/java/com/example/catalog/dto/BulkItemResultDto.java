@@ -0,0 +1,62 @@
+package com.example.catalog.dto;
+
+import java.util.Map;
+
+/**
+ * Outcome of a single item of a bulk request; index is the item's position in the request array
+ */
+public class BulkItemResultDto {
+
+    public static final String CREATED = "created";
+    public static final String UPDATED = "updated";
+    public static final String DELETED = "deleted";
+    public static final String FAILED = "failed";
+
+    private int index;
+    private Long id;
+    private String status;
+    private Map<String, String> errors;
+
+    // Constructors
+    public BulkItemResultDto() {}
+
+    public BulkItemResultDto(int index, Long id, String status, Map<String, String> errors) {
+        this.index = index;
+        this.id = id;
+        this.status = status;
+        this.errors = errors;
+    }
+
+    // Getters and Setters
+    public int getIndex() {
+        return index;
+    }
+
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public Map<String, String> getErrors() {
+        return errors;
+    }
+
+    public void setErrors(Map<String, String> errors) {
+        this.errors = errors;
+    }
+}
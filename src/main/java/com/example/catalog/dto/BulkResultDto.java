@@ -0,0 +1,62 @@
+package com.example.catalog.dto;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-item report of a bulk create/update/delete request
+ */
+public class BulkResultDto {
+
+    private int succeeded;
+    private int failed;
+    private List<BulkItemResultDto> items = new ArrayList<>();
+
+    // Constructors
+    public BulkResultDto() {}
+
+    public void addSuccess(int index, Long id, String status) {
+        items.add(new BulkItemResultDto(index, id, status, null));
+        succeeded++;
+    }
+
+    public void addFailure(int index, Long id, Map<String, String> errors) {
+        items.add(new BulkItemResultDto(index, id, BulkItemResultDto.FAILED, errors));
+        failed++;
+    }
+
+    /**
+     * Order items by their position in the request
+     */
+    public BulkResultDto sorted() {
+        items.sort(Comparator.comparingInt(BulkItemResultDto::getIndex));
+        return this;
+    }
+
+    // Getters and Setters
+    public int getSucceeded() {
+        return succeeded;
+    }
+
+    public void setSucceeded(int succeeded) {
+        this.succeeded = succeeded;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+
+    public void setFailed(int failed) {
+        this.failed = failed;
+    }
+
+    public List<BulkItemResultDto> getItems() {
+        return items;
+    }
+
+    public void setItems(List<BulkItemResultDto> items) {
+        this.items = items;
+    }
+}
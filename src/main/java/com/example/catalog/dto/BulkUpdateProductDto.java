@@ -0,0 +1,27 @@
+package com.example.catalog.dto;
+
+import jakarta.validation.constraints.NotNull;
+import java.math.BigDecimal;
+
+public class BulkUpdateProductDto extends UpdateProductDto {
+
+    @NotNull(message = "Product id is required")
+    private Long id;
+
+    // Constructors
+    public BulkUpdateProductDto() {}
+
+    public BulkUpdateProductDto(Long id, String name, String description, BigDecimal price, String category, Integer stock) {
+        super(name, description, price, category, stock);
+        this.id = id;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+}
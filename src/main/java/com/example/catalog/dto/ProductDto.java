@@ -1,11 +1,16 @@
 package com.example.catalog.dto;
 
+import com.fasterxml.jackson.annotation.JsonFilter;
 import jakarta.validation.constraints.*;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
+// Sparse fieldsets: the filter writes every property unless a response selects fields (see JacksonConfig)
+@JsonFilter(ProductDto.FIELDS_FILTER)
 public class ProductDto {
 
+    public static final String FIELDS_FILTER = "productFields";
+
     private Long id;
 
     @NotBlank(message = "Product name is required")
@@ -29,11 +34,12 @@ public class ProductDto {
 
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+    private Long version;
 
     // Constructors
     public ProductDto() {}
 
-    public ProductDto(Long id, String name, String description, BigDecimal price, String category, Integer stock, LocalDateTime createdAt, LocalDateTime updatedAt) {
+    public ProductDto(Long id, String name, String description, BigDecimal price, String category, Integer stock, LocalDateTime createdAt, LocalDateTime updatedAt, Long version) {
         this.id = id;
         this.name = name;
         this.description = description;
@@ -42,6 +48,7 @@ public class ProductDto {
         this.stock = stock;
         this.createdAt = createdAt;
         this.updatedAt = updatedAt;
+        this.version = version;
     }
 
     // Getters and Setters
@@ -108,4 +115,12 @@ public class ProductDto {
     public void setUpdatedAt(LocalDateTime updatedAt) {
         this.updatedAt = updatedAt;
     }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
 }
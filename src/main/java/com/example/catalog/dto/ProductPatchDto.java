@@ -0,0 +1,58 @@
+package com.example.catalog.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.math.BigDecimal;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * JSON merge patch body (RFC 7386) for PATCH /api/products/{id}: properties left out keep their value,
+ * properties sent as null are cleared. Jackson only calls the setters of properties present in the body.
+ */
+public class ProductPatchDto extends UpdateProductDto {
+
+    @JsonIgnore
+    private final Set<String> present = new HashSet<>();
+
+    // Constructors
+    public ProductPatchDto() {}
+
+    // Getters and Setters
+    @Override
+    public void setName(String name) {
+        super.setName(name);
+        present.add("name");
+    }
+
+    @Override
+    public void setDescription(String description) {
+        super.setDescription(description);
+        present.add("description");
+    }
+
+    @Override
+    public void setPrice(BigDecimal price) {
+        super.setPrice(price);
+        present.add("price");
+    }
+
+    @Override
+    public void setCategory(String category) {
+        super.setCategory(category);
+        present.add("category");
+    }
+
+    @Override
+    public void setStock(Integer stock) {
+        super.setStock(stock);
+        present.add("stock");
+    }
+
+    /**
+     * Whether the property was sent, possibly as null
+     */
+    public boolean isPresent(String property) {
+        return present.contains(property);
+    }
+}
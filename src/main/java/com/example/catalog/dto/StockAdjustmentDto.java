@@ -0,0 +1,25 @@
+package com.example.catalog.dto;
+
+import jakarta.validation.constraints.NotNull;
+
+public class StockAdjustmentDto {
+
+    @NotNull(message = "Stock delta is required")
+    private Integer delta;
+
+    // Constructors
+    public StockAdjustmentDto() {}
+
+    public StockAdjustmentDto(Integer delta) {
+        this.delta = delta;
+    }
+
+    // Getters and Setters
+    public Integer getDelta() {
+        return delta;
+    }
+
+    public void setDelta(Integer delta) {
+        this.delta = delta;
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.catalog.dto;
+
+public class StockLevelDto {
+
+    private Long id;
+    private Integer stock;
+
+    // Constructors
+    public StockLevelDto() {}
+
+    public StockLevelDto(Long id, Integer stock) {
+        this.id = id;
+        this.stock = stock;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Integer getStock() {
+        return stock;
+    }
+
+    public void setStock(Integer stock) {
+        this.stock = stock;
+    }
+}
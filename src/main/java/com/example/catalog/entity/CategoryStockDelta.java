@@ -0,0 +1,63 @@
+package com.example.catalog.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Stock change of one category recorded by a stock adjust, reserve or release transaction, not yet added to
+ * {@link CategoryStats#getTotalStock()}. Inserted with plain JDBC and folded by CategoryStatsService.
+ */
+@Entity
+@Table(name = "category_stock_deltas")
+public class CategoryStockDelta {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "category_key", nullable = false, length = 50)
+    private String categoryKey;
+
+    @Column(name = "stock_delta", nullable = false)
+    private long stockDelta;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    // Constructors
+    public CategoryStockDelta() {}
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getCategoryKey() {
+        return categoryKey;
+    }
+
+    public void setCategoryKey(String categoryKey) {
+        this.categoryKey = categoryKey;
+    }
+
+    public long getStockDelta() {
+        return stockDelta;
+    }
+
+    public void setStockDelta(long stockDelta) {
+        this.stockDelta = stockDelta;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
@@ -1,8 +1,10 @@
 package com.example.catalog.entity;
 
+import com.example.catalog.service.CategoryStatsListener;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.DynamicUpdate;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.math.BigDecimal;
@@ -10,10 +12,15 @@ import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "products")
+@EntityListeners(CategoryStatsListener.class)
+// UPDATE only the changed columns, so a PATCH of one field does not rewrite the whole row
+@DynamicUpdate
 public class Product {
 
+    // Pooled sequence (see V5) so ids are assigned without a round trip per row and inserts can be batched
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "products_id_seq")
+    @SequenceGenerator(name = "products_id_seq", sequenceName = "products_id_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank(message = "Product name is required")
@@ -48,6 +55,22 @@ public class Product {
     @Column(name = "updated_at", nullable = false)
     private LocalDateTime updatedAt;
 
+    // Optimistic locking: checked and incremented by every UPDATE, so concurrent writers cannot overwrite each other
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
+    // Category, price and stock as last read from or written to the database, so an update can be applied
+    // to the category summaries as a delta (see CategoryStatsListener)
+    @Transient
+    private String loadedCategory;
+
+    @Transient
+    private BigDecimal loadedPrice;
+
+    @Transient
+    private Integer loadedStock;
+
     // Constructors
     public Product() {}
 
@@ -124,6 +147,38 @@ public class Product {
         this.updatedAt = updatedAt;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public String getLoadedCategory() {
+        return loadedCategory;
+    }
+
+    public void setLoadedCategory(String loadedCategory) {
+        this.loadedCategory = loadedCategory;
+    }
+
+    public BigDecimal getLoadedPrice() {
+        return loadedPrice;
+    }
+
+    public void setLoadedPrice(BigDecimal loadedPrice) {
+        this.loadedPrice = loadedPrice;
+    }
+
+    public Integer getLoadedStock() {
+        return loadedStock;
+    }
+
+    public void setLoadedStock(Integer loadedStock) {
+        this.loadedStock = loadedStock;
+    }
+
     @Override
     public String toString() {
         return "Product{" +
@@ -135,6 +190,7 @@ public class Product {
                 ", stock=" + stock +
                 ", createdAt=" + createdAt +
                 ", updatedAt=" + updatedAt +
+                ", version=" + version +
                 '}';
     }
 }
@@ -0,0 +1,30 @@
+package com.example.catalog.exception;
+
+/**
+ * A stock adjustment would leave a product with negative stock; nothing was changed
+ */
+public class InsufficientStockException extends RuntimeException {
+
+    private final Long productId;
+    private final int available;
+    private final int requested;
+
+    public InsufficientStockException(Long productId, int available, int requested) {
+        super("Insufficient stock for product " + productId + ": " + available + " available, " + requested + " requested");
+        this.productId = productId;
+        this.available = available;
+        this.requested = requested;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public int getAvailable() {
+        return available;
+    }
+
+    public int getRequested() {
+        return requested;
+    }
+}
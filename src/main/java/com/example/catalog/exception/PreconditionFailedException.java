@@ -0,0 +1,24 @@
+package com.example.catalog.exception;
+
+/**
+ * The If-Match header of a write does not match the current version of the product
+ */
+public class PreconditionFailedException extends RuntimeException {
+
+    private final Long productId;
+    private final Long currentVersion;
+
+    public PreconditionFailedException(Long productId, Long currentVersion) {
+        super("Product " + productId + " has changed, its current version is " + currentVersion);
+        this.productId = productId;
+        this.currentVersion = currentVersion;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public Long getCurrentVersion() {
+        return currentVersion;
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.catalog.exception;
+
+/**
+ * A product referenced inside a request body does not exist
+ */
+public class ProductNotFoundException extends RuntimeException {
+
+    private final Long productId;
+
+    public ProductNotFoundException(Long productId) {
+        super("Product " + productId + " not found");
+        this.productId = productId;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+}
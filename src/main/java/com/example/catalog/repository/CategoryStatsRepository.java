@@ -0,0 +1,54 @@
+package com.example.catalog.repository;
+
+import com.example.catalog.entity.CategoryStats;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface CategoryStatsRepository extends JpaRepository<CategoryStats, String> {
+
+    /**
+     * Categories that currently have products, ordered by name
+     */
+    @Query("SELECT s FROM CategoryStats s WHERE s.productCount > 0 ORDER BY s.category")
+    List<CategoryStats> findNonEmpty();
+
+    /**
+     * Category names that currently have products, ordered by name
+     */
+    @Query("SELECT s.category FROM CategoryStats s WHERE s.productCount > 0 ORDER BY s.category")
+    List<String> findNonEmptyCategoryNames();
+
+    /**
+     * Product count of a category (case-insensitive key)
+     */
+    @Query("SELECT s.productCount FROM CategoryStats s WHERE s.categoryKey = :categoryKey")
+    Optional<Long> findProductCount(@Param("categoryKey") String categoryKey);
+
+    /**
+     * Lock the summary rows of the given categories, in key order to avoid deadlocks between writers
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM CategoryStats s WHERE s.categoryKey IN :categoryKeys ORDER BY s.categoryKey")
+    List<CategoryStats> lockByCategoryKeys(@Param("categoryKeys") Collection<String> categoryKeys);
+
+    /**
+     * Existing keys among the given ones
+     */
+    @Query("SELECT s.categoryKey FROM CategoryStats s WHERE s.categoryKey IN :categoryKeys")
+    List<String> findExistingKeys(@Param("categoryKeys") Collection<String> categoryKeys);
+
+    /**
+     * Every tracked category key
+     */
+    @Query("SELECT s.categoryKey FROM CategoryStats s")
+    List<String> findAllKeys();
+}
@@ -1,27 +1,69 @@
 package com.example.catalog.repository;
 
+import com.example.catalog.dto.ProductDto;
 import com.example.catalog.entity.Product;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, ProductRepositoryCustom {
 
     /**
-     * Find products by name containing (case-insensitive)
+     * Largest low-stock threshold served by the partial idx_products_low_stock (V7); larger thresholds use the
+     * *Unbounded queries
      */
-    Page<Product> findByNameContainingIgnoreCase(String name, Pageable pageable);
+    int LOW_STOCK_MAX_THRESHOLD = 100;
 
     /**
-     * Find products by category
+     * Constructor expression used by the read queries below: rows go straight into ProductDto, so reads
+     * neither hydrate managed entities nor keep dirty-checking snapshots
      */
-    Page<Product> findByCategoryIgnoreCase(String category, Pageable pageable);
+    String PRODUCT_DTO = "new com.example.catalog.dto.ProductDto(" +
+            "p.id, p.name, p.description, p.price, p.category, p.stock, p.createdAt, p.updatedAt, p.version)";
+
+    /**
+     * Page of all products as DTOs (sort and offset taken from the pageable)
+     */
+    @Query(value = "SELECT " + PRODUCT_DTO + " FROM Product p",
+           countQuery = "SELECT COUNT(p) FROM Product p")
+    Page<ProductDto> findAllDtos(Pageable pageable);
+
+    /**
+     * Find one product as a DTO
+     */
+    @Query("SELECT " + PRODUCT_DTO + " FROM Product p WHERE p.id = :id")
+    Optional<ProductDto> findDtoById(@Param("id") Long id);
+
+    /**
+     * Find products by name containing (case-insensitive), served by idx_products_name_trgm.
+     * Written with LOWER because derived IgnoreCase queries compare UPPER(...), which no index covers.
+     */
+    @Query("SELECT p FROM Product p WHERE LOWER(p.name) LIKE LOWER(CONCAT('%', :name, '%'))")
+    Page<Product> findByNameContainingIgnoreCase(@Param("name") String name, Pageable pageable);
+
+    /**
+     * Find products by category (case-insensitive), served by idx_products_lower_category_name_id
+     */
+    @Query("SELECT p FROM Product p WHERE LOWER(p.category) = LOWER(:category)")
+    Page<Product> findByCategoryIgnoreCase(@Param("category") String category, Pageable pageable);
+
+    /**
+     * Page of products in a category without the count query; the total comes from category_stats
+     */
+    @Query("SELECT " + PRODUCT_DTO + " FROM Product p WHERE LOWER(p.category) = LOWER(:category)")
+    List<ProductDto> findPageByCategory(@Param("category") String category, Pageable pageable);
 
     /**
      * Search products by name or description containing the search term (case-insensitive)
@@ -32,10 +74,129 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     Page<Product> searchProducts(@Param("searchTerm") String searchTerm, Pageable pageable);
 
     /**
-     * Find products with low stock (stock <= threshold)
+     * Full-text search ranked by relevance (Postgres only, requires V4__Add_full_text_search).
+     * Word matches come from search_vector; substring matches keep the behaviour of searchProducts.
+     */
+    @Query(value = "SELECT p.* FROM products p " +
+                   "WHERE p.search_vector @@ websearch_to_tsquery('simple', :searchTerm) " +
+                   "OR LOWER(p.name) LIKE '%' || LOWER(:searchTerm) || '%' " +
+                   "OR LOWER(p.description) LIKE '%' || LOWER(:searchTerm) || '%' " +
+                   "ORDER BY ts_rank_cd(p.search_vector, websearch_to_tsquery('simple', :searchTerm)) DESC, " +
+                   "similarity(LOWER(p.name), LOWER(:searchTerm)) DESC, p.name, p.id",
+           countQuery = "SELECT count(*) FROM products p " +
+                        "WHERE p.search_vector @@ websearch_to_tsquery('simple', :searchTerm) " +
+                        "OR LOWER(p.name) LIKE '%' || LOWER(:searchTerm) || '%' " +
+                        "OR LOWER(p.description) LIKE '%' || LOWER(:searchTerm) || '%'",
+           nativeQuery = true)
+    Page<Product> fullTextSearch(@Param("searchTerm") String searchTerm, Pageable pageable);
+
+    /**
+     * Keyset page of all products ordered by (name, id), starting after the given position.
+     * The leading p.name >= :name bound lets the database seek on idx_products_name_id and walk it in order;
+     * no count query is issued.
+     */
+    @Query("SELECT p FROM Product p WHERE p.name >= :name AND (p.name > :name OR p.id > :id) ORDER BY p.name, p.id")
+    List<Product> findAllAfter(@Param("name") String name, @Param("id") Long id, Pageable pageable);
+
+    /**
+     * Same keyset page as findAllAfter, projected into DTOs
+     */
+    @Query("SELECT " + PRODUCT_DTO + " FROM Product p WHERE p.name >= :name AND (p.name > :name OR p.id > :id) ORDER BY p.name, p.id")
+    List<ProductDto> findAllDtosAfter(@Param("name") String name, @Param("id") Long id, Pageable pageable);
+
+    /**
+     * Keyset page of products in a category (case-insensitive), ordered by (name, id)
+     */
+    @Query("SELECT " + PRODUCT_DTO + " FROM Product p WHERE LOWER(p.category) = LOWER(:category) " +
+           "AND p.name >= :name AND (p.name > :name OR p.id > :id) ORDER BY p.name, p.id")
+    List<ProductDto> findByCategoryAfter(@Param("category") String category,
+                                         @Param("name") String name,
+                                         @Param("id") Long id,
+                                         Pageable pageable);
+
+    /**
+     * Keyset page of products matching the search term, ordered by (name, id)
+     */
+    @Query("SELECT " + PRODUCT_DTO + " FROM Product p WHERE " +
+           "(LOWER(p.name) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
+           "LOWER(p.description) LIKE LOWER(CONCAT('%', :searchTerm, '%'))) " +
+           "AND p.name >= :name AND (p.name > :name OR p.id > :id) ORDER BY p.name, p.id")
+    List<ProductDto> searchProductsAfter(@Param("searchTerm") String searchTerm,
+                                         @Param("name") String name,
+                                         @Param("id") Long id,
+                                         Pageable pageable);
+
+    /**
+     * Current stock of a product, read as a single column
+     */
+    @Query("SELECT p.stock FROM Product p WHERE p.id = :id")
+    Optional<Integer> findStockById(@Param("id") Long id);
+
+    /**
+     * Per-category aggregates for the given lower-cased categories:
+     * key, display name, count, total stock, min price, max price, price sum.
+     * The total stock leaves out the category_stock_deltas rows not yet folded into category_stats; both tables
+     * are read by one statement so a concurrent stock change is either in both or in neither.
+     */
+    @Query(value = "SELECT a.category_key, MIN(a.category), SUM(a.counted), SUM(a.stock), MIN(a.price), MAX(a.price), SUM(a.price) " +
+                   "FROM (SELECT LOWER(p.category) AS category_key, p.category, 1 AS counted, p.stock, p.price " +
+                   "FROM products p WHERE LOWER(p.category) IN (:categoryKeys) " +
+                   "UNION ALL SELECT d.category_key, CAST(NULL AS VARCHAR(50)), 0, -d.stock_delta, CAST(NULL AS DECIMAL(12,2)) " +
+                   "FROM category_stock_deltas d WHERE d.category_key IN (:categoryKeys)) a " +
+                   "GROUP BY a.category_key",
+           nativeQuery = true)
+    List<Object[]> aggregateByCategoryKeys(@Param("categoryKeys") Collection<String> categoryKeys);
+
+    /**
+     * Lower-cased key of every category in use (scans the table; only the category_stats repair needs it)
+     */
+    @Query("SELECT DISTINCT LOWER(p.category) FROM Product p WHERE p.category IS NOT NULL")
+    List<String> findCategoryKeys();
+
+    /**
+     * Every product in id order, read through a forward-only cursor.
+     * Must be consumed inside a transaction and closed afterwards.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT " + PRODUCT_DTO + " FROM Product p ORDER BY p.id")
+    Stream<ProductDto> streamAllBy();
+
+    /**
+     * Keyset page of products with low stock (stock <= threshold), ordered by (stock, id), starting after the given position.
+     * The constant bound lets Postgres prove the partial idx_products_low_stock applies, even for generic plans.
+     */
+    @Query("SELECT " + PRODUCT_DTO + " FROM Product p WHERE p.stock <= :threshold AND p.stock <= " + LOW_STOCK_MAX_THRESHOLD + " " +
+           "AND p.stock >= :stock AND (p.stock > :stock OR p.id > :id) ORDER BY p.stock, p.id")
+    List<ProductDto> findLowStockAfter(@Param("threshold") Integer threshold,
+                                       @Param("stock") Integer stock,
+                                       @Param("id") Long id,
+                                       Pageable pageable);
+
+    /**
+     * Same as findLowStockAfter for thresholds above LOW_STOCK_MAX_THRESHOLD, served by idx_products_stock
+     */
+    @Query("SELECT " + PRODUCT_DTO + " FROM Product p WHERE p.stock <= :threshold " +
+           "AND p.stock >= :stock AND (p.stock > :stock OR p.id > :id) ORDER BY p.stock, p.id")
+    List<ProductDto> findLowStockAfterUnbounded(@Param("threshold") Integer threshold,
+                                                @Param("stock") Integer stock,
+                                                @Param("id") Long id,
+                                                Pageable pageable);
+
+    /**
+     * Every product with low stock in (stock, id) order, read through a forward-only cursor.
+     * Must be consumed inside a transaction and closed afterwards.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT " + PRODUCT_DTO + " FROM Product p WHERE p.stock <= :threshold AND p.stock <= " + LOW_STOCK_MAX_THRESHOLD + " " +
+           "ORDER BY p.stock, p.id")
+    Stream<ProductDto> streamLowStock(@Param("threshold") Integer threshold);
+
+    /**
+     * Same as streamLowStock for thresholds above LOW_STOCK_MAX_THRESHOLD
      */
-    @Query("SELECT p FROM Product p WHERE p.stock <= :threshold")
-    List<Product> findProductsWithLowStock(@Param("threshold") Integer threshold);
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT " + PRODUCT_DTO + " FROM Product p WHERE p.stock <= :threshold ORDER BY p.stock, p.id")
+    Stream<ProductDto> streamLowStockUnbounded(@Param("threshold") Integer threshold);
 
     /**
      * Find products by price range
@@ -46,9 +207,10 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
                                    Pageable pageable);
 
     /**
-     * Count products by category
+     * Count products by category (case-insensitive)
      */
-    long countByCategoryIgnoreCase(String category);
+    @Query("SELECT COUNT(p) FROM Product p WHERE LOWER(p.category) = LOWER(:category)")
+    long countByCategoryIgnoreCase(@Param("category") String category);
 
     /**
      * Find all distinct categories
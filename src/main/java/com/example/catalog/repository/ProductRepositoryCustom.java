@@ -0,0 +1,47 @@
+package com.example.catalog.repository;
+
+import com.example.catalog.dto.ProductDto;
+import org.springframework.data.domain.Pageable;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Queries that Spring Data cannot derive, implemented in {@link ProductRepositoryImpl}
+ */
+public interface ProductRepositoryCustom {
+
+    /**
+     * Page of products selecting only the given columns (sort and offset taken from the pageable);
+     * the other DTO properties stay null. category is an optional case-insensitive filter.
+     */
+    List<ProductDto> findFields(List<String> fields, String category, Pageable pageable);
+
+    /**
+     * Add delta to the stock of a product with a single conditional UPDATE, only if the result stays
+     * non-negative. Empty when no row was updated: the product does not exist or has too little stock.
+     * A Product already loaded in the persistence context is not refreshed.
+     */
+    Optional<StockUpdate> adjustStock(Long id, int delta, LocalDateTime updatedAt);
+
+    /**
+     * Delete the given products with one DELETE, returning what each deleted row held; ids that do not
+     * exist are left out. Bypasses entity callbacks, like any JPQL bulk delete.
+     */
+    List<DeletedProduct> deleteAllReturning(Collection<Long> ids);
+
+    /**
+     * Row state after a successful stock adjustment, including the version the UPDATE incremented to
+     */
+    record StockUpdate(int stock, String category, long version) {
+    }
+
+    /**
+     * Values of a deleted row that the category summaries are made of
+     */
+    record DeletedProduct(long id, String category, BigDecimal price, int stock) {
+    }
+}
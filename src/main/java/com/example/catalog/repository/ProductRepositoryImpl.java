@@ -0,0 +1,191 @@
+package com.example.catalog.repository;
+
+import com.example.catalog.dto.ProductDto;
+import com.example.catalog.entity.Product;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.ParameterExpression;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.hibernate.Session;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+public class ProductRepositoryImpl implements ProductRepositoryCustom {
+
+    private static final String ADJUST_STOCK =
+            "UPDATE products SET stock = stock + ?, updated_at = ?, version = version + 1 WHERE id = ? AND stock + ? >= 0";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<ProductDto> findFields(List<String> fields, String category, Pageable pageable) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = builder.createTupleQuery();
+        Root<Product> product = query.from(Product.class);
+
+        List<Selection<?>> selections = new ArrayList<>(fields.size());
+        for (String field : fields) {
+            selections.add(product.get(field).alias(field));
+        }
+        query.multiselect(selections);
+
+        ParameterExpression<String> categoryParameter = null;
+        if (category != null) {
+            // Same predicate as findPageByCategory, so idx_products_lower_category_name_id still applies
+            categoryParameter = builder.parameter(String.class);
+            query.where(builder.equal(builder.lower(product.get("category")), builder.lower(categoryParameter)));
+        }
+        query.orderBy(QueryUtils.toOrders(pageable.getSort(), product, builder));
+
+        TypedQuery<Tuple> typedQuery = entityManager.createQuery(query);
+        if (categoryParameter != null) {
+            typedQuery.setParameter(categoryParameter, category);
+        }
+        if (pageable.isPaged()) {
+            typedQuery.setFirstResult((int) pageable.getOffset());
+            typedQuery.setMaxResults(pageable.getPageSize());
+        }
+
+        List<ProductDto> products = new ArrayList<>();
+        for (Tuple tuple : typedQuery.getResultList()) {
+            ProductDto dto = new ProductDto();
+            for (String field : fields) {
+                setField(dto, field, tuple.get(field));
+            }
+            products.add(dto);
+        }
+        return products;
+    }
+
+    @Override
+    public Optional<StockUpdate> adjustStock(Long id, int delta, LocalDateTime updatedAt) {
+        boolean returning = supportsReturning();
+        // Plain JDBC does not trigger Hibernate's auto flush, so write pending changes (e.g. a product
+        // created earlier in the transaction) before updating
+        entityManager.flush();
+        return entityManager.unwrap(Session.class).doReturningWork(connection -> {
+            if (returning) {
+                // One round trip: the row lock taken by the UPDATE also covers reading the new value
+                try (PreparedStatement statement = connection.prepareStatement(ADJUST_STOCK + " RETURNING stock, category, version")) {
+                    bindAdjustment(statement, id, delta, updatedAt);
+                    try (ResultSet rows = statement.executeQuery()) {
+                        return rows.next() ? Optional.of(stockUpdate(rows)) : Optional.empty();
+                    }
+                }
+            }
+            try (PreparedStatement statement = connection.prepareStatement(ADJUST_STOCK)) {
+                bindAdjustment(statement, id, delta, updatedAt);
+                if (statement.executeUpdate() == 0) {
+                    return Optional.empty();
+                }
+            }
+            // Still under the row lock of the UPDATE, so this reads the value it wrote
+            try (PreparedStatement statement = connection.prepareStatement("SELECT stock, category, version FROM products WHERE id = ?")) {
+                statement.setLong(1, id);
+                try (ResultSet rows = statement.executeQuery()) {
+                    rows.next();
+                    return Optional.of(stockUpdate(rows));
+                }
+            }
+        });
+    }
+
+    @Override
+    public List<DeletedProduct> deleteAllReturning(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        boolean returning = supportsReturning();
+        String in = " WHERE id IN (" + String.join(", ", Collections.nCopies(ids.size(), "?")) + ")";
+        entityManager.flush();
+        return entityManager.unwrap(Session.class).doReturningWork(connection -> {
+            if (returning) {
+                try (PreparedStatement statement = connection.prepareStatement(
+                        "DELETE FROM products" + in + " RETURNING id, category, price, stock")) {
+                    bindIds(statement, ids);
+                    return deletedProducts(statement);
+                }
+            }
+            // Lock first, so the values read are the ones deleted
+            List<DeletedProduct> deleted;
+            try (PreparedStatement statement = connection.prepareStatement(
+                    "SELECT id, category, price, stock FROM products" + in + " FOR UPDATE")) {
+                bindIds(statement, ids);
+                deleted = deletedProducts(statement);
+            }
+            try (PreparedStatement statement = connection.prepareStatement("DELETE FROM products" + in)) {
+                bindIds(statement, ids);
+                statement.executeUpdate();
+            }
+            return deleted;
+        });
+    }
+
+    private static void bindIds(PreparedStatement statement, Collection<Long> ids) throws SQLException {
+        int index = 1;
+        for (Long id : ids) {
+            statement.setLong(index++, id);
+        }
+    }
+
+    private static List<DeletedProduct> deletedProducts(PreparedStatement statement) throws SQLException {
+        List<DeletedProduct> deleted = new ArrayList<>();
+        try (ResultSet rows = statement.executeQuery()) {
+            while (rows.next()) {
+                deleted.add(new DeletedProduct(rows.getLong(1), rows.getString(2), rows.getBigDecimal(3), rows.getInt(4)));
+            }
+        }
+        return deleted;
+    }
+
+    private static StockUpdate stockUpdate(ResultSet rows) throws SQLException {
+        return new StockUpdate(rows.getInt(1), rows.getString(2), rows.getLong(3));
+    }
+
+    private static void bindAdjustment(PreparedStatement statement, Long id, int delta, LocalDateTime updatedAt) throws SQLException {
+        statement.setInt(1, delta);
+        statement.setTimestamp(2, Timestamp.valueOf(updatedAt));
+        statement.setLong(3, id);
+        statement.setInt(4, delta);
+    }
+
+    private boolean supportsReturning() {
+        return entityManager.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices().getDialect() instanceof PostgreSQLDialect;
+    }
+
+    private static void setField(ProductDto product, String field, Object value) {
+        switch (field) {
+            case "id" -> product.setId((Long) value);
+            case "name" -> product.setName((String) value);
+            case "description" -> product.setDescription((String) value);
+            case "price" -> product.setPrice((BigDecimal) value);
+            case "category" -> product.setCategory((String) value);
+            case "stock" -> product.setStock((Integer) value);
+            case "createdAt" -> product.setCreatedAt((LocalDateTime) value);
+            case "updatedAt" -> product.setUpdatedAt((LocalDateTime) value);
+            case "version" -> product.setVersion((Long) value);
+            default -> throw new IllegalArgumentException("Unknown field '" + field + "'");
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.catalog.repository;
+
+import com.example.catalog.entity.ProductRecord;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking counterpart of {@link ProductRepository} for the reactive stack
+ */
+@Repository
+public interface ReactiveProductRepository extends R2dbcRepository<ProductRecord, Long> {
+
+    /**
+     * Find a page of products (sort and offset taken from the pageable)
+     */
+    Flux<ProductRecord> findAllBy(Pageable pageable);
+
+    /**
+     * Find products by category (case insensitive), served by idx_products_lower_category_name_id
+     */
+    @Query("SELECT * FROM products WHERE LOWER(category) = LOWER(:category) " +
+           "ORDER BY name, id LIMIT :limit OFFSET :offset")
+    Flux<ProductRecord> findByCategory(@Param("category") String category,
+                                       @Param("limit") int limit,
+                                       @Param("offset") long offset);
+
+    /**
+     * Count products by category (case insensitive)
+     */
+    @Query("SELECT COUNT(*) FROM products WHERE LOWER(category) = LOWER(:category)")
+    Mono<Long> countByCategory(@Param("category") String category);
+
+    /**
+     * Search products by name or description
+     */
+    @Query("SELECT * FROM products WHERE " +
+           "LOWER(name) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
+           "LOWER(description) LIKE LOWER(CONCAT('%', :searchTerm, '%')) " +
+           "ORDER BY name, id LIMIT :limit OFFSET :offset")
+    Flux<ProductRecord> searchProducts(@Param("searchTerm") String searchTerm,
+                                       @Param("limit") int limit,
+                                       @Param("offset") long offset);
+
+    /**
+     * Count products matching a search term
+     */
+    @Query("SELECT COUNT(*) FROM products WHERE " +
+           "LOWER(name) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
+           "LOWER(description) LIKE LOWER(CONCAT('%', :searchTerm, '%'))")
+    Mono<Long> countSearchProducts(@Param("searchTerm") String searchTerm);
+
+    /**
+     * Find products with low stock; the constant bound lets Postgres use the partial idx_products_low_stock
+     */
+    @Query("SELECT * FROM products WHERE stock <= :threshold " +
+           "AND stock <= " + ProductRepository.LOW_STOCK_MAX_THRESHOLD + " ORDER BY stock, id LIMIT :limit")
+    Flux<ProductRecord> findProductsWithLowStock(@Param("threshold") Integer threshold, @Param("limit") int limit);
+
+    /**
+     * Same as findProductsWithLowStock for thresholds above ProductRepository.LOW_STOCK_MAX_THRESHOLD
+     */
+    @Query("SELECT * FROM products WHERE stock <= :threshold ORDER BY stock, id LIMIT :limit")
+    Flux<ProductRecord> findProductsWithLowStockUnbounded(@Param("threshold") Integer threshold, @Param("limit") int limit);
+
+    /**
+     * Get all distinct categories
+     */
+    @Query("SELECT DISTINCT category FROM products WHERE category IS NOT NULL ORDER BY category")
+    Flux<String> findDistinctCategories();
+
+    /**
+     * Load a product and lock its row until the transaction ends, so its values stay those being deleted
+     */
+    @Query("SELECT * FROM products WHERE id = :id FOR UPDATE")
+    Mono<ProductRecord> findByIdForUpdate(@Param("id") Long id);
+
+    /**
+     * Delete a product by id in one statement; emits the number of deleted rows
+     */
+    @Modifying
+    @Query("DELETE FROM products WHERE id = :id")
+    Mono<Integer> deleteProductById(@Param("id") Long id);
+
+    /**
+     * Stream every product ordered by id; rows are pulled from the driver as the subscriber requests them
+     */
+    @Query("SELECT * FROM products ORDER BY id")
+    Flux<ProductRecord> streamAll();
+
+    /**
+     * Next id from the sequence shared with the JPA mapping
+     */
+    @Query("SELECT nextval('products_id_seq')")
+    Mono<Long> nextId();
+}
@@ -0,0 +1,497 @@
+package com.example.catalog.search;
+
+import com.example.catalog.entity.Product;
+import com.example.catalog.repository.ProductRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.text.Normalizer;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * In-JVM inverted index over name, description and category.
+ *
+ * Every query token is matched as a prefix of the indexed terms and all tokens must match (AND).
+ * Results are ranked by which fields matched (name > category > description), then by name.
+ * The index is loaded from ProductRepository at startup and kept current through the
+ * onProductSaved/onProductDeleted hooks, applied after the surrounding transaction commits,
+ * and through onProductChanged for changes made by other nodes.
+ * Every mutation is conditional on the product version, so hooks and reloads arriving in any order
+ * converge on the latest row: a write replaces a document only when its version is newer.
+ * Search answers are served entirely from memory.
+ */
+@Component
+@ConditionalOnProperty(name = "catalog.search.engine", havingValue = "memory")
+public class InMemoryProductSearchEngine implements ProductSearchEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(InMemoryProductSearchEngine.class);
+
+    private static final int LOAD_BATCH_SIZE = 1000;
+
+    private static final int NAME_WEIGHT = 4;
+    private static final int CATEGORY_WEIGHT = 2;
+    private static final int DESCRIPTION_WEIGHT = 1;
+
+    // Rough per-object sizes for a 64-bit JVM with compressed oops, used by the memory gauge
+    private static final long TERM_ENTRY_BYTES = 40 + 40 + 32;
+    private static final long DOCUMENT_BYTES = 120 + 48;
+    private static final long STRING_BYTES = 40;
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Product> documents = new HashMap<>();
+    private final TermIndex nameIndex = new TermIndex();
+    private final TermIndex descriptionIndex = new TermIndex();
+    private final TermIndex categoryIndex = new TermIndex();
+
+    @PostConstruct
+    void buildIndex() {
+        long started = System.nanoTime();
+        loadAll();
+
+        Gauge.builder("catalog.search.index.memory", this, InMemoryProductSearchEngine::estimatedMemoryBytes)
+                .description("Estimated heap used by the in-memory search index")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("catalog.search.index.documents", this, InMemoryProductSearchEngine::documentCount)
+                .description("Products held by the in-memory search index")
+                .register(meterRegistry);
+        Gauge.builder("catalog.search.index.terms", this, InMemoryProductSearchEngine::termCount)
+                .description("Distinct terms held by the in-memory search index")
+                .register(meterRegistry);
+
+        logger.info("In-memory search index built with {} products in {} ms",
+                documentCount(), (System.nanoTime() - started) / 1_000_000);
+    }
+
+    @Override
+    public Page<Product> search(String searchTerm, Pageable pageable) {
+        List<String> tokens = tokenize(searchTerm);
+        if (tokens.isEmpty()) {
+            return Page.empty(pageable);
+        }
+
+        lock.readLock().lock();
+        try {
+            int tokenCount = tokens.size();
+            long[][] nameHits = new long[tokenCount][];
+            long[][] descriptionHits = new long[tokenCount][];
+            long[][] categoryHits = new long[tokenCount][];
+            long[] matches = null;
+
+            for (int i = 0; i < tokenCount; i++) {
+                String token = tokens.get(i);
+                nameHits[i] = nameIndex.matchPrefix(token);
+                descriptionHits[i] = descriptionIndex.matchPrefix(token);
+                categoryHits[i] = categoryIndex.matchPrefix(token);
+                long[] tokenMatches = union(union(nameHits[i], descriptionHits[i]), categoryHits[i]);
+                matches = matches == null ? tokenMatches : intersect(matches, tokenMatches);
+                if (matches.length == 0) {
+                    return Page.empty(pageable);
+                }
+            }
+
+            List<ScoredProduct> scored = new ArrayList<>(matches.length);
+            for (long id : matches) {
+                int score = 0;
+                for (int i = 0; i < tokenCount; i++) {
+                    if (Arrays.binarySearch(nameHits[i], id) >= 0) {
+                        score += NAME_WEIGHT;
+                    }
+                    if (Arrays.binarySearch(categoryHits[i], id) >= 0) {
+                        score += CATEGORY_WEIGHT;
+                    }
+                    if (Arrays.binarySearch(descriptionHits[i], id) >= 0) {
+                        score += DESCRIPTION_WEIGHT;
+                    }
+                }
+                scored.add(new ScoredProduct(documents.get(id), score));
+            }
+            scored.sort(Comparator.comparingInt(ScoredProduct::score).reversed()
+                    .thenComparing(result -> result.product().getName())
+                    .thenComparing(result -> result.product().getId()));
+
+            int from = (int) Math.min(pageable.getOffset(), scored.size());
+            int to = Math.min(from + pageable.getPageSize(), scored.size());
+            List<Product> content = scored.subList(from, to).stream().map(ScoredProduct::product).toList();
+            return new PageImpl<>(content, pageable, scored.size());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void onProductSaved(Product product) {
+        // Snapshot after commit so flushed values (e.g. updatedAt) are captured and rollbacks are ignored
+        afterCommit(() -> index(product, false));
+    }
+
+    @Override
+    public void onStockAdjusted(Long id, int stock, long version, LocalDateTime updatedAt) {
+        afterCommit(() -> adjustStock(id, stock, version, updatedAt));
+    }
+
+    @Override
+    public void onProductDeleted(Long id) {
+        afterCommit(() -> remove(id));
+    }
+
+    @Override
+    public void onProductChanged(Long id, boolean deleted, Long version) {
+        if (deleted) {
+            remove(id);
+        } else if (version == null || !holds(id, version)) {
+            // Changed on another node (changes made here are already indexed at that version)
+            productRepository.findById(id).ifPresentOrElse(product -> index(product, true), () -> remove(id));
+        }
+    }
+
+    @Override
+    public void onChangesMissed() {
+        long started = System.nanoTime();
+        Set<Long> loaded = loadAll();
+        List<Long> gone;
+        lock.readLock().lock();
+        try {
+            gone = documents.keySet().stream().filter(id -> !loaded.contains(id)).toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+        gone.forEach(this::remove);
+        logger.info("In-memory search index reloaded with {} products in {} ms",
+                documentCount(), (System.nanoTime() - started) / 1_000_000);
+    }
+
+    /**
+     * Index every product in batches, replacing the documents already held; returns the ids loaded
+     */
+    private Set<Long> loadAll() {
+        Set<Long> loaded = new HashSet<>();
+        String lastName = "";
+        Long lastId = 0L;
+        List<Product> batch;
+        do {
+            batch = productRepository.findAllAfter(lastName, lastId, PageRequest.ofSize(LOAD_BATCH_SIZE));
+            for (Product product : batch) {
+                index(product, true);
+                loaded.add(product.getId());
+            }
+            if (!batch.isEmpty()) {
+                Product last = batch.get(batch.size() - 1);
+                lastName = last.getName();
+                lastId = last.getId();
+            }
+        } while (batch.size() == LOAD_BATCH_SIZE);
+        return loaded;
+    }
+
+    private boolean holds(Long id, long version) {
+        lock.readLock().lock();
+        try {
+            Product document = documents.get(id);
+            return document != null && document.getVersion() != null && document.getVersion() >= version;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Index a product unless the document held is newer. A row read from the database (reload) also
+     * replaces a document at the same version, since writes outside the application keep the version.
+     */
+    private void index(Product product, boolean reload) {
+        Product snapshot = snapshot(product);
+        lock.writeLock().lock();
+        try {
+            Product previous = documents.get(snapshot.getId());
+            if (previous != null && !supersedes(snapshot.getVersion(), previous.getVersion(), reload)) {
+                return;
+            }
+            documents.put(snapshot.getId(), snapshot);
+            if (previous != null) {
+                unindexFields(previous);
+            }
+            long id = snapshot.getId();
+            tokenize(snapshot.getName()).forEach(term -> nameIndex.add(term, id));
+            tokenize(snapshot.getDescription()).forEach(term -> descriptionIndex.add(term, id));
+            tokenize(snapshot.getCategory()).forEach(term -> categoryIndex.add(term, id));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void adjustStock(Long id, int stock, long version, LocalDateTime updatedAt) {
+        lock.writeLock().lock();
+        try {
+            Product previous = documents.get(id);
+            if (previous != null && supersedes(version, previous.getVersion(), false)) {
+                // Stock is not indexed, so only the stored snapshot changes
+                Product snapshot = snapshot(previous);
+                snapshot.setStock(stock);
+                snapshot.setVersion(version);
+                snapshot.setUpdatedAt(updatedAt);
+                documents.put(id, snapshot);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Whether a change at version replaces a document held at current; unversioned documents are always replaced
+     */
+    private static boolean supersedes(Long version, Long current, boolean reload) {
+        if (version == null || current == null) {
+            return true;
+        }
+        return reload ? version >= current : version > current;
+    }
+
+    private void remove(Long id) {
+        lock.writeLock().lock();
+        try {
+            Product previous = documents.remove(id);
+            if (previous != null) {
+                unindexFields(previous);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void unindexFields(Product product) {
+        long id = product.getId();
+        tokenize(product.getName()).forEach(term -> nameIndex.remove(term, id));
+        tokenize(product.getDescription()).forEach(term -> descriptionIndex.remove(term, id));
+        tokenize(product.getCategory()).forEach(term -> categoryIndex.remove(term, id));
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * Estimated heap used by documents, terms and posting lists
+     */
+    long estimatedMemoryBytes() {
+        lock.readLock().lock();
+        try {
+            long bytes = nameIndex.estimatedBytes() + descriptionIndex.estimatedBytes() + categoryIndex.estimatedBytes();
+            for (Product product : documents.values()) {
+                bytes += DOCUMENT_BYTES + stringBytes(product.getName())
+                        + stringBytes(product.getDescription()) + stringBytes(product.getCategory());
+            }
+            return bytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    int documentCount() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    int termCount() {
+        lock.readLock().lock();
+        try {
+            return nameIndex.size() + descriptionIndex.size() + categoryIndex.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Lower-case, accent-free alphanumeric tokens, without duplicates
+     */
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        String normalized = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD))
+                .replaceAll("")
+                .toLowerCase(Locale.ROOT);
+        Set<String> tokens = new LinkedHashSet<>();
+        for (String token : TOKEN_SEPARATOR.split(normalized)) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return new ArrayList<>(tokens);
+    }
+
+    private static Product snapshot(Product product) {
+        Product copy = new Product(product.getName(), product.getDescription(), product.getPrice(),
+                product.getCategory(), product.getStock());
+        copy.setId(product.getId());
+        copy.setCreatedAt(product.getCreatedAt());
+        copy.setUpdatedAt(product.getUpdatedAt());
+        copy.setVersion(product.getVersion());
+        return copy;
+    }
+
+    private static long stringBytes(String value) {
+        return value == null ? 0 : STRING_BYTES + 2L * value.length();
+    }
+
+    private static long[] union(long[] left, long[] right) {
+        if (left.length == 0) {
+            return right;
+        }
+        if (right.length == 0) {
+            return left;
+        }
+        long[] merged = new long[left.length + right.length];
+        int i = 0, j = 0, k = 0;
+        while (i < left.length && j < right.length) {
+            if (left[i] < right[j]) {
+                merged[k++] = left[i++];
+            } else if (left[i] > right[j]) {
+                merged[k++] = right[j++];
+            } else {
+                merged[k++] = left[i++];
+                j++;
+            }
+        }
+        while (i < left.length) {
+            merged[k++] = left[i++];
+        }
+        while (j < right.length) {
+            merged[k++] = right[j++];
+        }
+        return Arrays.copyOf(merged, k);
+    }
+
+    private static long[] intersect(long[] left, long[] right) {
+        long[] common = new long[Math.min(left.length, right.length)];
+        int i = 0, j = 0, k = 0;
+        while (i < left.length && j < right.length) {
+            if (left[i] < right[j]) {
+                i++;
+            } else if (left[i] > right[j]) {
+                j++;
+            } else {
+                common[k++] = left[i++];
+                j++;
+            }
+        }
+        return Arrays.copyOf(common, k);
+    }
+
+    private record ScoredProduct(Product product, int score) {}
+
+    /**
+     * Sorted term dictionary for one field; prefix lookups are range scans over the tree
+     */
+    private static class TermIndex {
+
+        private final TreeMap<String, PostingList> terms = new TreeMap<>();
+
+        void add(String term, long id) {
+            terms.computeIfAbsent(term, key -> new PostingList()).add(id);
+        }
+
+        void remove(String term, long id) {
+            PostingList postings = terms.get(term);
+            if (postings != null) {
+                postings.remove(id);
+                if (postings.isEmpty()) {
+                    terms.remove(term);
+                }
+            }
+        }
+
+        /**
+         * Sorted, distinct ids of every term starting with the prefix
+         */
+        long[] matchPrefix(String prefix) {
+            NavigableMap<String, PostingList> range = terms.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+            if (range.isEmpty()) {
+                return new long[0];
+            }
+            if (range.size() == 1) {
+                PostingList postings = range.firstEntry().getValue();
+                long[] ids = new long[postings.size()];
+                postings.copyInto(ids, 0);
+                return ids;
+            }
+            int total = 0;
+            for (PostingList postings : range.values()) {
+                total += postings.size();
+            }
+            long[] ids = new long[total];
+            int offset = 0;
+            for (PostingList postings : range.values()) {
+                offset = postings.copyInto(ids, offset);
+            }
+            Arrays.sort(ids);
+            int distinct = 0;
+            for (int i = 0; i < ids.length; i++) {
+                if (i == 0 || ids[i] != ids[i - 1]) {
+                    ids[distinct++] = ids[i];
+                }
+            }
+            return Arrays.copyOf(ids, distinct);
+        }
+
+        int size() {
+            return terms.size();
+        }
+
+        long estimatedBytes() {
+            long bytes = 0;
+            for (Map.Entry<String, PostingList> entry : terms.entrySet()) {
+                bytes += TERM_ENTRY_BYTES + 2L * entry.getKey().length() + 8L * entry.getValue().capacity();
+            }
+            return bytes;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.catalog.search;
+
+import com.example.catalog.entity.Product;
+import com.example.catalog.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Portable substring search (LOWER(...) LIKE '%term%') ordered by name.
+ * Works on any database; on Postgres the trigram indexes from V4 serve the LIKE predicates.
+ */
+@Component
+@ConditionalOnProperty(name = "catalog.search.engine", havingValue = "like", matchIfMissing = true)
+public class LikeProductSearchEngine implements ProductSearchEngine {
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<Product> search(String searchTerm, Pageable pageable) {
+        Pageable byName = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), Sort.by("name").ascending());
+        return productRepository.searchProducts(searchTerm, byName);
+    }
+}
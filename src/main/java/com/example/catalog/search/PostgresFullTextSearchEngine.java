@@ -0,0 +1,31 @@
+package com.example.catalog.search;
+
+import com.example.catalog.entity.Product;
+import com.example.catalog.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Postgres full-text search over the search_vector column, ranked by ts_rank_cd.
+ * Substring matches on name/description are kept for recall and served by the pg_trgm indexes.
+ */
+@Component
+@ConditionalOnProperty(name = "catalog.search.engine", havingValue = "postgres")
+public class PostgresFullTextSearchEngine implements ProductSearchEngine {
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<Product> search(String searchTerm, Pageable pageable) {
+        // Ordering is part of the native query
+        Pageable unsorted = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize());
+        return productRepository.fullTextSearch(searchTerm, unsorted);
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.catalog.search;
+
+import com.example.catalog.entity.Product;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDateTime;
+
+/**
+ * Strategy behind /api/products/search.
+ * The active implementation is selected with catalog.search.engine.
+ */
+public interface ProductSearchEngine {
+
+    /**
+     * Find products matching the search term, most relevant first.
+     * The pageable carries page number and size only; ordering is decided by the engine.
+     */
+    Page<Product> search(String searchTerm, Pageable pageable);
+
+    /**
+     * Called by ProductService after a product is created or updated.
+     * Engines that keep their own index override this; database-backed engines ignore it.
+     */
+    default void onProductSaved(Product product) {
+    }
+
+    /**
+     * Called by ProductService after the stock of a product is adjusted in place, without loading it,
+     * with the stock and version the UPDATE left on the row
+     */
+    default void onStockAdjusted(Long id, int stock, long version, LocalDateTime updatedAt) {
+    }
+
+    /**
+     * Called by ProductService after a product is deleted
+     */
+    default void onProductDeleted(Long id) {
+    }
+
+    /**
+     * Called by ProductService for every change published by the database (ProductChangeListener), whichever
+     * node made it. version is null for deletions and for updates that kept the version.
+     */
+    default void onProductChanged(Long id, boolean deleted, Long version) {
+    }
+
+    /**
+     * Called by ProductService when change notifications may have been missed
+     */
+    default void onChangesMissed() {
+    }
+}
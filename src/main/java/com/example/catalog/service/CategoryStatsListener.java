@@ -0,0 +1,65 @@
+package com.example.catalog.service;
+
+import com.example.catalog.entity.Product;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostUpdate;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreRemove;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+/**
+ * Product entity callbacks that record how each write changes the category summaries, so
+ * {@link CategoryStatsService} can apply the deltas before commit.
+ * JPQL bulk statements bypass these callbacks and must record their changes explicitly.
+ */
+@Component
+public class CategoryStatsListener {
+
+    @Autowired
+    @Lazy
+    private CategoryStatsService categoryStatsService;
+
+    @PostLoad
+    public void onLoad(Product product) {
+        remember(product);
+        // Dirty products are only flushed at commit; register before that happens
+        categoryStatsService.track();
+    }
+
+    @PrePersist
+    public void beforePersist(Product product) {
+        // The insert itself may be deferred to the commit-time flush
+        categoryStatsService.track();
+    }
+
+    @PostPersist
+    public void onPersist(Product product) {
+        categoryStatsService.productAdded(product.getCategory(), product.getPrice(), product.getStock());
+        remember(product);
+    }
+
+    @PostUpdate
+    public void onUpdate(Product product) {
+        categoryStatsService.productChanged(product.getLoadedCategory(), product.getLoadedPrice(), product.getLoadedStock(),
+                product.getCategory(), product.getPrice(), product.getStock());
+        remember(product);
+    }
+
+    @PreRemove
+    public void onRemove(Product product) {
+        if (product.getLoadedPrice() != null) {
+            categoryStatsService.productRemoved(product.getLoadedCategory(), product.getLoadedPrice(), product.getLoadedStock());
+        } else {
+            categoryStatsService.productRemoved(product.getCategory(), product.getPrice(), product.getStock());
+        }
+    }
+
+    private static void remember(Product product) {
+        product.setLoadedCategory(product.getCategory());
+        product.setLoadedPrice(product.getPrice());
+        product.setLoadedStock(product.getStock());
+    }
+}
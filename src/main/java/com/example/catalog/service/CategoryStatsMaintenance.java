@@ -0,0 +1,118 @@
+package com.example.catalog.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Background jobs for category_stats, which product writes only maintain with deltas.
+ *
+ * Every stock-fold-interval (0 disables it) the stock deltas journaled by stock adjust, reserve and release are
+ * added to total_stock, STOCK_FOLD_BATCH_SIZE journal rows per transaction, so total stock lags those writes by
+ * about one interval. Every repair-interval (0 disables it), and on demand through the JMX categorystats endpoint, each category is
+ * recomputed from the products table, REPAIR_BATCH_SIZE categories per transaction. This corrects drift
+ * left by writes made outside the application (e.g. the reactive mode or manual SQL).
+ */
+@Service
+public class CategoryStatsMaintenance {
+
+    private static final Logger logger = LoggerFactory.getLogger(CategoryStatsMaintenance.class);
+
+    // Summary rows locked at once by one repair transaction
+    private static final int REPAIR_BATCH_SIZE = 100;
+
+    // Journal rows folded by one transaction
+    private static final int STOCK_FOLD_BATCH_SIZE = 1000;
+
+    @Autowired
+    private CategoryStatsService categoryStatsService;
+
+    @Value("${catalog.category-stats.repair-interval:6h}")
+    private Duration repairInterval;
+
+    @Value("${catalog.category-stats.stock-fold-interval:1s}")
+    private Duration stockFoldInterval;
+
+    private ScheduledExecutorService scheduler;
+
+    @PostConstruct
+    void start() {
+        if (repairInterval.isZero() && stockFoldInterval.isZero()) {
+            return;
+        }
+        // Two threads, so a long repair does not hold back the stock folds
+        scheduler = Executors.newScheduledThreadPool(2, runnable -> {
+            Thread thread = new Thread(runnable, "category-stats-maintenance");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (!stockFoldInterval.isZero()) {
+            long interval = stockFoldInterval.toMillis();
+            scheduler.scheduleWithFixedDelay(this::foldQuietly, interval, interval, TimeUnit.MILLISECONDS);
+        }
+        if (!repairInterval.isZero()) {
+            long interval = repairInterval.toMillis();
+            scheduler.scheduleWithFixedDelay(this::repairQuietly, interval, interval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * Recompute every category; returns the number of categories repaired
+     */
+    public int repairAll() {
+        long started = System.nanoTime();
+        List<String> keys = categoryStatsService.findCategoryKeys();
+        for (int from = 0; from < keys.size(); from += REPAIR_BATCH_SIZE) {
+            categoryStatsService.repair(keys.subList(from, Math.min(from + REPAIR_BATCH_SIZE, keys.size())));
+        }
+        logger.info("Category statistics of {} categories recomputed in {} ms",
+                keys.size(), (System.nanoTime() - started) / 1_000_000);
+        return keys.size();
+    }
+
+    /**
+     * Fold every journaled stock delta into total_stock; returns the number of journal rows folded
+     */
+    public int foldStockDeltas() {
+        int folded = 0;
+        int batch;
+        do {
+            batch = categoryStatsService.foldStockDeltas(STOCK_FOLD_BATCH_SIZE);
+            folded += batch;
+        } while (batch == STOCK_FOLD_BATCH_SIZE);
+        return folded;
+    }
+
+    private void foldQuietly() {
+        try {
+            foldStockDeltas();
+        } catch (RuntimeException e) {
+            logger.warn("Folding journaled stock deltas failed, retrying at the next interval", e);
+        }
+    }
+
+    private void repairQuietly() {
+        try {
+            repairAll();
+        } catch (RuntimeException e) {
+            logger.error("Category statistics repair failed, retrying at the next interval", e);
+        }
+    }
+}
@@ -0,0 +1,547 @@
+package com.example.catalog.service;
+
+import com.example.catalog.dto.CategoryStatsDto;
+import com.example.catalog.entity.CategoryStats;
+import com.example.catalog.repository.CategoryStatsRepository;
+import com.example.catalog.repository.ProductRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Maintains the category_stats summary table.
+ * Product writes record how they change each category (see {@link CategoryStatsListener}): count, price sum
+ * and total stock deltas, and the prices added and removed. Just before the transaction commits, the summed
+ * delta of each category is applied in key order with a single UPDATE ... SET x = x + ?, so a write never
+ * reads the products of its categories. The price range widens with the prices added; only when a product
+ * holding the current minimum or maximum goes away is that bound looked up again, through the category index and
+ * under the summary row lock.
+ *
+ * Stock-only changes (adjust, reserve, release) would make every stock write of a category wait on the same
+ * summary row, so they are journaled instead: one category_stock_deltas insert per category and transaction,
+ * added to total_stock later by {@link #foldStockDeltas}.
+ *
+ * The full recomputation from the products table is only run by {@link CategoryStatsMaintenance}, which
+ * repairs drift from writes made outside the application.
+ */
+@Service
+public class CategoryStatsService {
+
+    private static final String PENDING_RESOURCE = CategoryStatsService.class.getName() + ".pending";
+    private static final String UNIQUE_VIOLATION = "23505";
+
+    // Right-hand sides see the row before the UPDATE, and the subqueries this transaction's own product writes
+    private static final String APPLY_DELTA = "UPDATE category_stats SET " +
+            "category = COALESCE(LEAST(category, ?), category), " +
+            "product_count = product_count + ?, " +
+            "price_sum = price_sum + ?, " +
+            "total_stock = total_stock + ?, " +
+            "min_price = CASE WHEN ? <= min_price " +
+            "THEN (SELECT MIN(p.price) FROM products p WHERE LOWER(p.category) = ?) " +
+            "ELSE COALESCE(LEAST(min_price, ?), min_price, ?) END, " +
+            "max_price = CASE WHEN ? >= max_price " +
+            "THEN (SELECT MAX(p.price) FROM products p WHERE LOWER(p.category) = ?) " +
+            "ELSE COALESCE(GREATEST(max_price, ?), max_price, ?) END, " +
+            "updated_at = ? " +
+            "WHERE category_key = ?";
+
+    // Taken before an APPLY_DELTA that may look a price bound up again, so the UPDATE (and the snapshot its
+    // subqueries read) only starts once the writers that applied their deltas first have committed. Otherwise the
+    // snapshot, taken while waiting for the row, would still see products they removed. Products removed by writers
+    // not there yet are still seen, but those writers look the bound up again themselves.
+    private static final String LOCK_SUMMARY = "SELECT category_key FROM category_stats WHERE category_key = ? FOR UPDATE";
+
+    private static final String JOURNAL_STOCK_DELTA =
+            "INSERT INTO category_stock_deltas (category_key, stock_delta, created_at) VALUES (?, ?, ?)";
+
+    private static final String FOLD_STOCK_DELTA =
+            "UPDATE category_stats SET total_stock = total_stock + ?, updated_at = ? WHERE category_key = ?";
+
+    @Autowired
+    private CategoryStatsRepository categoryStatsRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Get the statistics of every category that has products
+     */
+    @Transactional(readOnly = true)
+    public List<CategoryStatsDto> getAllCategoryStats() {
+        flushPending();
+        return categoryStatsRepository.findNonEmpty().stream()
+                .map(CategoryStatsService::convertToDto)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Get the names of every category that has products
+     */
+    @Transactional(readOnly = true)
+    public List<String> getCategoryNames() {
+        flushPending();
+        return categoryStatsRepository.findNonEmptyCategoryNames();
+    }
+
+    /**
+     * Get the number of products in a category (case-insensitive), if the category is tracked
+     */
+    @Transactional(readOnly = true)
+    public Optional<Long> getProductCount(String category) {
+        flushPending();
+        return categoryStatsRepository.findProductCount(key(category));
+    }
+
+    /**
+     * Record a product written for the first time
+     */
+    public void productAdded(String category, BigDecimal price, Integer stock) {
+        CategoryDelta delta = delta(category);
+        if (delta != null) {
+            delta.added(category, price, stock);
+        }
+    }
+
+    /**
+     * Record a deleted product, with the values it had in the database
+     */
+    public void productRemoved(String category, BigDecimal price, Integer stock) {
+        CategoryDelta delta = delta(category);
+        if (delta != null) {
+            delta.removed(price, stock);
+        }
+    }
+
+    /**
+     * Record an updated product, from the values it had in the database to the ones written
+     */
+    public void productChanged(String oldCategory, BigDecimal oldPrice, Integer oldStock,
+                               String category, BigDecimal price, Integer stock) {
+        if (oldCategory == null || category == null || !key(oldCategory).equals(key(category))) {
+            productRemoved(oldCategory, oldPrice, oldStock);
+            productAdded(category, price, stock);
+            return;
+        }
+        CategoryDelta delta = delta(category);
+        if (delta == null) {
+            return;
+        }
+        // Same category: the count stays, and untouched prices leave the price range alone
+        delta.stock += value(stock) - value(oldStock);
+        if (oldPrice == null || price == null || oldPrice.compareTo(price) != 0) {
+            // Nets to zero products; the old price may have been a bound of the range
+            delta.removed(oldPrice, 0);
+            delta.added(null, price, 0);
+        }
+        if (!oldCategory.equals(category)) {
+            delta.name(category);
+        }
+    }
+
+    /**
+     * Record a stock change made without loading the product (see ProductRepository#adjustStock).
+     * It is journaled at commit and reaches total_stock with the next {@link #foldStockDeltas}.
+     */
+    public void addStockDelta(String category, int stock) {
+        Pending pending = pending();
+        if (pending != null && category != null) {
+            pending.stockDeltas.merge(key(category), (long) stock, Long::sum);
+        }
+    }
+
+    /**
+     * Make sure the current read-write transaction applies its summary deltas before committing,
+     * even if its changes are only flushed at commit time
+     */
+    public void track() {
+        pending();
+    }
+
+    /**
+     * Apply the summary deltas recorded so far in this transaction
+     */
+    public void flushPending() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        Pending pending = (Pending) TransactionSynchronizationManager.getResource(PENDING_RESOURCE);
+        if (pending == null) {
+            return;
+        }
+        // Flushing runs the entity callbacks that record the deltas of pending product changes
+        entityManager.flush();
+        if (!pending.deltas.isEmpty()) {
+            Map<String, CategoryDelta> deltas = new TreeMap<>(pending.deltas);
+            pending.deltas.clear();
+            applyDeltas(deltas);
+        }
+        if (!pending.stockDeltas.isEmpty()) {
+            Map<String, Long> stockDeltas = new TreeMap<>(pending.stockDeltas);
+            pending.stockDeltas.clear();
+            journalStockDeltas(stockDeltas);
+        }
+    }
+
+    /**
+     * Add up to limit journaled stock deltas, oldest first, to the total_stock of their categories and delete
+     * them; returns the number of journal rows folded. The rows are locked first, so concurrent folds on other
+     * nodes never add the same row twice.
+     */
+    @Transactional
+    public int foldStockDeltas(int limit) {
+        flushPending();
+        Map<String, Long> totals = new TreeMap<>();
+        List<Long> ids = new ArrayList<>();
+        entityManager.unwrap(Session.class).doWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(
+                    "SELECT id, category_key, stock_delta FROM category_stock_deltas ORDER BY id " +
+                    "FETCH FIRST ? ROWS ONLY FOR UPDATE")) {
+                statement.setInt(1, limit);
+                try (ResultSet rows = statement.executeQuery()) {
+                    while (rows.next()) {
+                        ids.add(rows.getLong(1));
+                        totals.merge(rows.getString(2), rows.getLong(3), Long::sum);
+                    }
+                }
+            }
+            if (ids.isEmpty()) {
+                return;
+            }
+            try (PreparedStatement statement = connection.prepareStatement("DELETE FROM category_stock_deltas WHERE id IN ("
+                    + String.join(", ", Collections.nCopies(ids.size(), "?")) + ")")) {
+                for (int i = 0; i < ids.size(); i++) {
+                    statement.setLong(i + 1, ids.get(i));
+                }
+                statement.executeUpdate();
+            }
+            // Key order, like applyDeltas, so folds and product writes lock summary rows in the same order
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            try (PreparedStatement statement = connection.prepareStatement(FOLD_STOCK_DELTA)) {
+                for (Map.Entry<String, Long> total : totals.entrySet()) {
+                    if (total.getValue() == 0) {
+                        continue;
+                    }
+                    statement.setLong(1, total.getValue());
+                    statement.setTimestamp(2, now);
+                    statement.setString(3, total.getKey());
+                    statement.executeUpdate();
+                }
+            }
+        });
+        detach(totals.keySet());
+        return ids.size();
+    }
+
+    /**
+     * Every category that has a summary row or products. Scans the products table: repair only.
+     */
+    @Transactional
+    public List<String> findCategoryKeys() {
+        Set<String> keys = new TreeSet<>(categoryStatsRepository.findAllKeys());
+        keys.addAll(productRepository.findCategoryKeys());
+        return new ArrayList<>(keys);
+    }
+
+    /**
+     * Recompute the summary rows of the given categories from the products table, locking them in key order
+     */
+    @Transactional
+    public void repair(Collection<String> categoryKeys) {
+        // Deltas still pending in a joined transaction are already part of the products read below
+        flushPending();
+        List<String> keys = new ArrayList<>(new TreeSet<>(categoryKeys));
+        Map<String, String> names = new TreeMap<>();
+        keys.forEach(categoryKey -> names.put(categoryKey, categoryKey));
+        entityManager.unwrap(Session.class).doWork(connection -> insertMissing(connection, names));
+
+        Map<String, CategoryStats> stats = categoryStatsRepository.lockByCategoryKeys(keys).stream()
+                .collect(Collectors.toMap(CategoryStats::getCategoryKey, Function.identity()));
+        Set<String> empty = new HashSet<>(stats.keySet());
+        LocalDateTime now = LocalDateTime.now();
+
+        // The total stock excludes journaled deltas, which the next fold still adds
+        for (Object[] row : productRepository.aggregateByCategoryKeys(keys)) {
+            CategoryStats summary = stats.get((String) row[0]);
+            if (summary == null) {
+                continue;
+            }
+            empty.remove(summary.getCategoryKey());
+            if (row[1] != null) {
+                summary.setCategory((String) row[1]);
+            }
+            summary.setProductCount(((Number) row[2]).longValue());
+            summary.setTotalStock(row[3] == null ? 0 : ((Number) row[3]).longValue());
+            summary.setMinPrice((BigDecimal) row[4]);
+            summary.setMaxPrice((BigDecimal) row[5]);
+            summary.setPriceSum(row[6] == null ? BigDecimal.ZERO : (BigDecimal) row[6]);
+            summary.setUpdatedAt(now);
+        }
+
+        // Categories without products or journaled deltas keep their row with a zero count; readers skip them
+        for (String categoryKey : empty) {
+            CategoryStats summary = stats.get(categoryKey);
+            summary.setProductCount(0);
+            summary.setTotalStock(0);
+            summary.setMinPrice(null);
+            summary.setMaxPrice(null);
+            summary.setPriceSum(BigDecimal.ZERO);
+            summary.setUpdatedAt(now);
+        }
+    }
+
+    private CategoryDelta delta(String category) {
+        Pending pending = pending();
+        if (pending == null || category == null) {
+            return null;
+        }
+        return pending.deltas.computeIfAbsent(key(category), categoryKey -> new CategoryDelta());
+    }
+
+    private Pending pending() {
+        // Products loaded outside a transaction (e.g. under Propagation.SUPPORTS) are never written
+        if (!TransactionSynchronizationManager.isActualTransactionActive()
+                || TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return null;
+        }
+        Pending pending = (Pending) TransactionSynchronizationManager.getResource(PENDING_RESOURCE);
+        if (pending == null) {
+            pending = new Pending();
+            TransactionSynchronizationManager.bindResource(PENDING_RESOURCE, pending);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    flushPending();
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(PENDING_RESOURCE);
+                }
+            });
+        }
+        return pending;
+    }
+
+    /**
+     * One UPDATE per category, in key order so concurrent writers lock summary rows in the same order.
+     * A category without a summary row yet gets one first.
+     */
+    private void applyDeltas(Map<String, CategoryDelta> deltas) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        entityManager.unwrap(Session.class).doWork(connection -> {
+            try (PreparedStatement lock = connection.prepareStatement(LOCK_SUMMARY);
+                 PreparedStatement statement = connection.prepareStatement(APPLY_DELTA)) {
+                for (Map.Entry<String, CategoryDelta> entry : deltas.entrySet()) {
+                    CategoryDelta delta = entry.getValue();
+                    if (delta.isEmpty()) {
+                        continue;
+                    }
+                    if (delta.removedMin != null) {
+                        lock.setString(1, entry.getKey());
+                        lock.executeQuery().close();
+                    }
+                    delta.bind(statement, entry.getKey(), now);
+                    if (statement.executeUpdate() == 0) {
+                        insertMissing(connection, Map.of(entry.getKey(), delta.name != null ? delta.name : entry.getKey()));
+                        statement.executeUpdate();
+                    }
+                }
+            }
+        });
+        detach(deltas.keySet());
+    }
+
+    /**
+     * One journal row per category; inserts take no lock on the summary rows
+     */
+    private void journalStockDeltas(Map<String, Long> stockDeltas) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        entityManager.unwrap(Session.class).doWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(JOURNAL_STOCK_DELTA)) {
+                for (Map.Entry<String, Long> stockDelta : stockDeltas.entrySet()) {
+                    if (stockDelta.getValue() == 0) {
+                        continue;
+                    }
+                    statement.setString(1, stockDelta.getKey());
+                    statement.setLong(2, stockDelta.getValue());
+                    statement.setTimestamp(3, now);
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+            }
+        });
+    }
+
+    /**
+     * JDBC updates bypass the persistence context; drop summaries already loaded so later reads see the changes
+     */
+    private void detach(Collection<String> categoryKeys) {
+        for (String categoryKey : categoryKeys) {
+            entityManager.detach(entityManager.getReference(CategoryStats.class, categoryKey));
+        }
+    }
+
+    /**
+     * Create the rows of categories seen for the first time. Each insert runs under a savepoint so a
+     * concurrent transaction creating the same category does not abort this one.
+     */
+    private void insertMissing(Connection connection, Map<String, String> names) throws SQLException {
+        Set<String> missing = new TreeSet<>(names.keySet());
+        missing.removeAll(categoryStatsRepository.findExistingKeys(names.keySet()));
+        for (String categoryKey : missing) {
+            Savepoint savepoint = connection.setSavepoint();
+            try (PreparedStatement statement = connection.prepareStatement(
+                    "INSERT INTO category_stats (category_key, category, product_count, total_stock, price_sum, updated_at) " +
+                    "VALUES (?, ?, 0, 0, 0, CURRENT_TIMESTAMP)")) {
+                statement.setString(1, categoryKey);
+                statement.setString(2, names.get(categoryKey));
+                statement.executeUpdate();
+                connection.releaseSavepoint(savepoint);
+            } catch (SQLException e) {
+                connection.rollback(savepoint);
+                if (!UNIQUE_VIOLATION.equals(e.getSQLState())) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    /**
+     * Summary changes recorded by the current transaction
+     */
+    private static class Pending {
+
+        private final Map<String, CategoryDelta> deltas = new TreeMap<>();
+        private final Map<String, Long> stockDeltas = new TreeMap<>();
+    }
+
+    /**
+     * Summed change of one category: count, price sum and stock deltas, the lowest spelling of the category
+     * added, and the lowest and highest prices added and removed
+     */
+    private static class CategoryDelta {
+
+        private String name;
+        private long count;
+        private BigDecimal priceSum = BigDecimal.ZERO;
+        private long stock;
+        private BigDecimal addedMin;
+        private BigDecimal addedMax;
+        private BigDecimal removedMin;
+        private BigDecimal removedMax;
+
+        void added(String category, BigDecimal price, Integer stock) {
+            name(category);
+            count++;
+            this.stock += value(stock);
+            if (price != null) {
+                priceSum = priceSum.add(price);
+                addedMin = addedMin == null || price.compareTo(addedMin) < 0 ? price : addedMin;
+                addedMax = addedMax == null || price.compareTo(addedMax) > 0 ? price : addedMax;
+            }
+        }
+
+        void removed(BigDecimal price, Integer stock) {
+            count--;
+            this.stock -= value(stock);
+            if (price != null) {
+                priceSum = priceSum.subtract(price);
+                removedMin = removedMin == null || price.compareTo(removedMin) < 0 ? price : removedMin;
+                removedMax = removedMax == null || price.compareTo(removedMax) > 0 ? price : removedMax;
+            }
+        }
+
+        void name(String category) {
+            if (category != null && (name == null || category.compareTo(name) < 0)) {
+                name = category;
+            }
+        }
+
+        boolean isEmpty() {
+            return name == null && count == 0 && priceSum.signum() == 0 && stock == 0
+                    && addedMin == null && removedMin == null;
+        }
+
+        void bind(PreparedStatement statement, String categoryKey, Timestamp now) throws SQLException {
+            statement.setString(1, name);
+            statement.setLong(2, count);
+            statement.setBigDecimal(3, priceSum);
+            statement.setLong(4, stock);
+            setPrice(statement, 5, removedMin);
+            statement.setString(6, categoryKey);
+            setPrice(statement, 7, addedMin);
+            setPrice(statement, 8, addedMin);
+            setPrice(statement, 9, removedMax);
+            statement.setString(10, categoryKey);
+            setPrice(statement, 11, addedMax);
+            setPrice(statement, 12, addedMax);
+            statement.setTimestamp(13, now);
+            statement.setString(14, categoryKey);
+        }
+
+        private static void setPrice(PreparedStatement statement, int index, BigDecimal price) throws SQLException {
+            if (price == null) {
+                statement.setNull(index, Types.NUMERIC);
+            } else {
+                statement.setBigDecimal(index, price);
+            }
+        }
+    }
+
+    private static long value(Integer stock) {
+        return stock == null ? 0 : stock;
+    }
+
+    private static String key(String category) {
+        return category.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Convert CategoryStats entity to CategoryStatsDto
+     */
+    static CategoryStatsDto convertToDto(CategoryStats stats) {
+        BigDecimal avgPrice = stats.getProductCount() == 0 ? null
+                : stats.getPriceSum().divide(BigDecimal.valueOf(stats.getProductCount()), 2, RoundingMode.HALF_UP);
+        return new CategoryStatsDto(
+                stats.getCategory(),
+                stats.getProductCount(),
+                stats.getTotalStock(),
+                stats.getMinPrice(),
+                stats.getMaxPrice(),
+                avgPrice,
+                stats.getUpdatedAt()
+        );
+    }
+}
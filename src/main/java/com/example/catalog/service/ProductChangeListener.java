@@ -0,0 +1,159 @@
+package com.example.catalog.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps the local caches of this node in step with product writes made by every node.
+ *
+ * The V9 triggers publish the products inserted, updated (other than stock-only updates) and deleted by each
+ * statement on the product_changes channel when its transaction commits. A single thread LISTENs on a dedicated connection (outside the pool, since the
+ * subscription belongs to one session) and hands each change to {@link ProductService#onProductChanged},
+ * which evicts the cached product and updates the search engine. Changes this node made itself arrive too
+ * and are skipped when the cached copy already has their version.
+ *
+ * When the connection drops, the listener reconnects every retry-interval; once listening again it clears
+ * the local caches through {@link ProductService#onChangesMissed}, since notifications sent meanwhile are lost.
+ */
+public class ProductChangeListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductChangeListener.class);
+
+    public static final String CHANNEL = "product_changes";
+
+    // Longest wait for a notification before the connection is checked
+    private static final int POLL_TIMEOUT_MILLIS = 5000;
+
+    private final DataSource dataSource;
+    private final ProductService productService;
+    private final ObjectMapper objectMapper;
+    private final Duration retryInterval;
+
+    private final LongAdder received = new LongAdder();
+    private final LongAdder evicted = new LongAdder();
+    private Thread thread;
+    private volatile Connection connection;
+    private volatile boolean closed;
+
+    public ProductChangeListener(DataSource dataSource, ProductService productService,
+                                 ObjectMapper objectMapper, Duration retryInterval) {
+        this.dataSource = dataSource;
+        this.productService = productService;
+        this.objectMapper = objectMapper;
+        this.retryInterval = retryInterval;
+    }
+
+    @PostConstruct
+    void start() {
+        thread = new Thread(this::run, "product-change-listener");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        closed = true;
+        thread.interrupt();
+        closeConnection();
+        thread.join(POLL_TIMEOUT_MILLIS);
+    }
+
+    private void run() {
+        boolean listenedBefore = false;
+        while (!closed) {
+            try {
+                connection = dataSource.getConnection();
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                if (listenedBefore) {
+                    // Subscribed again first, so no change falls between the reset and the next notification
+                    logger.info("Listening on {} again, clearing local product caches", CHANNEL);
+                    productService.onChangesMissed();
+                }
+                listenedBefore = true;
+                listen(connection.unwrap(PGConnection.class));
+            } catch (SQLException | RuntimeException e) {
+                if (closed) {
+                    break;
+                }
+                logger.warn("Product change notifications interrupted, retrying in {}: {}", retryInterval, e.getMessage());
+                closeConnection();
+                try {
+                    Thread.sleep(retryInterval.toMillis());
+                } catch (InterruptedException interrupted) {
+                    break;
+                }
+            }
+        }
+        closeConnection();
+    }
+
+    private void listen(PGConnection listening) throws SQLException {
+        while (!closed) {
+            PGNotification[] notifications = listening.getNotifications(POLL_TIMEOUT_MILLIS);
+            if (notifications == null || notifications.length == 0) {
+                // A silently dropped connection would otherwise just look idle
+                if (!connection.isValid(POLL_TIMEOUT_MILLIS / 1000)) {
+                    throw new SQLException("Listening connection is no longer valid");
+                }
+                continue;
+            }
+            for (PGNotification notification : notifications) {
+                apply(notification.getParameter());
+            }
+        }
+    }
+
+    /**
+     * Apply one notification payload: {"op": "UPDATE", "changes": [[1, 3], [2, null]]}
+     */
+    void apply(String payload) {
+        received.increment();
+        try {
+            JsonNode notification = objectMapper.readTree(payload);
+            boolean deleted = "DELETE".equals(notification.path("op").asText());
+            for (JsonNode change : notification.path("changes")) {
+                Long version = change.hasNonNull(1) ? change.get(1).asLong() : null;
+                if (productService.onProductChanged(change.get(0).asLong(), deleted, version)) {
+                    evicted.increment();
+                }
+            }
+        } catch (Exception e) {
+            logger.error("Could not apply product change notification {}", payload, e);
+        }
+    }
+
+    private void closeConnection() {
+        Connection current = connection;
+        connection = null;
+        if (current != null) {
+            try {
+                current.close();
+            } catch (SQLException e) {
+                // Already broken
+            }
+        }
+    }
+
+    public long getReceived() {
+        return received.sum();
+    }
+
+    public long getEvicted() {
+        return evicted.sum();
+    }
+}
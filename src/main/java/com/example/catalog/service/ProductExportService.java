@@ -0,0 +1,126 @@
+package com.example.catalog.service;
+
+import com.example.catalog.dto.ProductDto;
+import com.example.catalog.repository.ProductRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Streams the whole catalog, or the low-stock listing, as NDJSON or CSV.
+ * Rows are read through a forward-only cursor straight into DTOs (no managed entities), so memory use
+ * does not depend on the number of products.
+ */
+@Service
+public class ProductExportService {
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * Write every product to the output stream; returns the number of rows written
+     */
+    @Transactional(readOnly = true)
+    public long exportProducts(ProductFileFormat format, OutputStream outputStream) throws IOException {
+        try (Stream<ProductDto> products = productRepository.streamAllBy()) {
+            return format == ProductFileFormat.CSV
+                    ? writeCsv(products.iterator(), outputStream)
+                    : writeNdjson(products.iterator(), outputStream);
+        }
+    }
+
+    /**
+     * Write every product with stock <= threshold, in (stock, id) order; returns the number of rows written
+     */
+    @Transactional(readOnly = true)
+    public long exportProductsWithLowStock(Integer threshold, ProductFileFormat format, OutputStream outputStream) throws IOException {
+        ProductService.checkLowStockThreshold(threshold);
+        try (Stream<ProductDto> products = ProductService.isIndexedLowStockThreshold(threshold)
+                ? productRepository.streamLowStock(threshold)
+                : productRepository.streamLowStockUnbounded(threshold)) {
+            return format == ProductFileFormat.CSV
+                    ? writeCsv(products.iterator(), outputStream)
+                    : writeNdjson(products.iterator(), outputStream);
+        }
+    }
+
+    private long writeNdjson(Iterator<ProductDto> products, OutputStream outputStream) throws IOException {
+        long rows = 0;
+        ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+            while (products.hasNext()) {
+                writer.writeValue(generator, products.next());
+                generator.writeRaw('\n');
+                if (++rows == 1) {
+                    // Send the first row right away instead of waiting for the buffer to fill
+                    generator.flush();
+                }
+            }
+        }
+        return rows;
+    }
+
+    private long writeCsv(Iterator<ProductDto> products, OutputStream outputStream) throws IOException {
+        long rows = 0;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        writer.write(String.join(",", ProductFileFormat.CSV_COLUMNS));
+        writer.write('\n');
+        writer.flush();
+        while (products.hasNext()) {
+            ProductDto dto = products.next();
+            writer.write(String.valueOf(dto.getId()));
+            writer.write(',');
+            writeCsvField(writer, dto.getName());
+            writer.write(',');
+            writeCsvField(writer, dto.getDescription());
+            writer.write(',');
+            writer.write(dto.getPrice().toPlainString());
+            writer.write(',');
+            writeCsvField(writer, dto.getCategory());
+            writer.write(',');
+            writer.write(String.valueOf(dto.getStock()));
+            writer.write(',');
+            writer.write(String.valueOf(dto.getCreatedAt()));
+            writer.write(',');
+            writer.write(String.valueOf(dto.getUpdatedAt()));
+            writer.write('\n');
+            rows++;
+        }
+        writer.flush();
+        return rows;
+    }
+
+    /**
+     * RFC 4180 quoting: fields containing separators, quotes or line breaks are quoted, quotes doubled
+     */
+    private static void writeCsvField(Writer writer, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        boolean quote = value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
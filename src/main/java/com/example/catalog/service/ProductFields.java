@@ -0,0 +1,57 @@
+package com.example.catalog.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Parses the fields parameter of list endpoints (e.g. fields=id,name,price).
+ * Offset-paginated listings read only the selected columns; every list endpoint writes only the selected properties.
+ */
+public final class ProductFields {
+
+    /**
+     * ProductDto properties that can be selected, each backed by a products column
+     */
+    public static final List<String> ALLOWED = List.of(
+            "id", "name", "description", "price", "category", "stock", "createdAt", "updatedAt", "version");
+
+    private ProductFields() {}
+
+    /**
+     * Columns to read for a selection: the selected fields plus id and updatedAt, which ETags are derived from
+     */
+    static List<String> withVersion(List<String> fields) {
+        List<String> columns = new ArrayList<>(fields);
+        for (String required : List.of("id", "updatedAt")) {
+            if (!columns.contains(required)) {
+                columns.add(required);
+            }
+        }
+        return columns;
+    }
+
+    /**
+     * Split and validate a comma-separated field list; duplicates are dropped, order is kept
+     */
+    public static List<String> parse(String fields) {
+        List<String> selected = new ArrayList<>();
+        if (fields != null) {
+            for (String field : fields.split(",")) {
+                String trimmed = field.trim();
+                if (trimmed.isEmpty()) {
+                    continue;
+                }
+                if (!ALLOWED.contains(trimmed)) {
+                    throw new IllegalArgumentException("Unknown field '" + trimmed + "', expected any of " + ALLOWED);
+                }
+                if (!selected.contains(trimmed)) {
+                    selected.add(trimmed);
+                }
+            }
+        }
+        if (selected.isEmpty()) {
+            throw new IllegalArgumentException("fields must name at least one field");
+        }
+        return selected;
+    }
+}
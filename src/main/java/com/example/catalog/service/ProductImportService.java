@@ -0,0 +1,303 @@
+package com.example.catalog.service;
+
+import com.example.catalog.dto.BulkItemResultDto;
+import com.example.catalog.dto.BulkResultDto;
+import com.example.catalog.dto.CreateProductDto;
+import com.example.catalog.dto.ImportResultDto;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Imports products from an NDJSON or CSV body.
+ * The body is parsed record by record and written in fixed-size chunks, each in its own transaction
+ * through {@link ProductService#bulkCreateProducts}, so memory use is bounded by the chunk size and
+ * the client is only read as fast as the database accepts rows.
+ */
+@Service
+public class ProductImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductImportService.class);
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${catalog.import.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${catalog.import.max-reported-errors:1000}")
+    private int maxReportedErrors;
+
+    @Value("${catalog.import.max-field-length:65536}")
+    private int maxFieldLength;
+
+    /**
+     * Read products from the input stream and create them chunk by chunk
+     */
+    public ImportResultDto importProducts(ProductFileFormat format, InputStream inputStream) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+        Chunk chunk = new Chunk(new ImportResultDto());
+
+        if (format == ProductFileFormat.CSV) {
+            readCsv(reader, chunk);
+        } else {
+            readNdjson(reader, chunk);
+        }
+        chunk.flush();
+
+        ImportResultDto result = chunk.result;
+        logger.info("Import finished: {} lines read, {} products imported, {} failed",
+                result.getLinesRead(), result.getImported(), result.getFailed());
+        return result;
+    }
+
+    private void readNdjson(BufferedReader reader, Chunk chunk) throws IOException {
+        ObjectReader productReader = objectMapper.readerFor(CreateProductDto.class);
+        String line;
+        long lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            chunk.result.setLinesRead(lineNumber);
+            if (line.isBlank()) {
+                continue;
+            }
+            try {
+                chunk.add(lineNumber, productReader.readValue(line));
+            } catch (JsonProcessingException e) {
+                chunk.result.addError(lineNumber, "Invalid JSON: " + e.getOriginalMessage(), maxReportedErrors);
+            }
+        }
+    }
+
+    private void readCsv(BufferedReader reader, Chunk chunk) throws IOException {
+        CsvRecordReader records = new CsvRecordReader(reader, maxFieldLength);
+        List<String> header = records.next();
+        if (header == null) {
+            return;
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(header.get(i).trim(), i);
+        }
+        if (!columns.containsKey("name") || !columns.containsKey("price")) {
+            throw new IllegalArgumentException("CSV header must contain at least the name and price columns");
+        }
+
+        List<String> fields;
+        while ((fields = nextRecord(records, chunk)) != null) {
+            long lineNumber = records.getRecordLine();
+            chunk.result.setLinesRead(records.getLinesRead());
+            if (fields.size() == 1 && fields.get(0).isBlank()) {
+                continue;
+            }
+            try {
+                chunk.add(lineNumber, toCreateDto(fields, columns));
+            } catch (NumberFormatException e) {
+                chunk.result.addError(lineNumber, "Invalid number: " + e.getMessage(), maxReportedErrors);
+            }
+        }
+        chunk.result.setLinesRead(records.getLinesRead());
+    }
+
+    /**
+     * Next CSV record, or null at end of input. A malformed record cannot be skipped, since the position of the
+     * next record is unknown: it is reported as the error of its line and the import stops there, keeping the
+     * chunks already written.
+     */
+    private List<String> nextRecord(CsvRecordReader records, Chunk chunk) throws IOException {
+        try {
+            return records.next();
+        } catch (MalformedCsvException e) {
+            chunk.result.setLinesRead(records.getLinesRead());
+            chunk.result.addError(records.getRecordLine(), e.getMessage() + "; import stopped", maxReportedErrors);
+            return null;
+        }
+    }
+
+    private static CreateProductDto toCreateDto(List<String> fields, Map<String, Integer> columns) {
+        CreateProductDto dto = new CreateProductDto();
+        dto.setName(field(fields, columns, "name"));
+        dto.setDescription(field(fields, columns, "description"));
+        String price = field(fields, columns, "price");
+        dto.setPrice(price == null ? null : new BigDecimal(price.trim()));
+        dto.setCategory(field(fields, columns, "category"));
+        String stock = field(fields, columns, "stock");
+        dto.setStock(stock == null ? null : Integer.valueOf(stock.trim()));
+        return dto;
+    }
+
+    /**
+     * Empty CSV fields are treated as missing values
+     */
+    private static String field(List<String> fields, Map<String, Integer> columns, String column) {
+        Integer index = columns.get(column);
+        if (index == null || index >= fields.size() || fields.get(index).isEmpty()) {
+            return null;
+        }
+        return fields.get(index);
+    }
+
+    /**
+     * Rows waiting to be written, with the line each one came from
+     */
+    private class Chunk {
+
+        private final ImportResultDto result;
+        private final List<CreateProductDto> items = new ArrayList<>(chunkSize);
+        private final List<Long> lines = new ArrayList<>(chunkSize);
+
+        Chunk(ImportResultDto result) {
+            this.result = result;
+        }
+
+        void add(long line, CreateProductDto item) {
+            items.add(item);
+            lines.add(line);
+            if (items.size() == chunkSize) {
+                flush();
+            }
+        }
+
+        void flush() {
+            if (items.isEmpty()) {
+                return;
+            }
+            BulkResultDto chunkResult = productService.bulkCreateProducts(items);
+            result.setImported(result.getImported() + chunkResult.getSucceeded());
+            for (BulkItemResultDto item : chunkResult.getItems()) {
+                if (BulkItemResultDto.FAILED.equals(item.getStatus())) {
+                    result.addError(lines.get(item.getIndex()), describe(item.getErrors()), maxReportedErrors);
+                }
+            }
+            items.clear();
+            lines.clear();
+            logger.info("Import progress: {} lines read, {} products imported, {} failed",
+                    result.getLinesRead(), result.getImported(), result.getFailed());
+        }
+
+        private String describe(Map<String, String> errors) {
+            return errors.entrySet().stream()
+                    .map(entry -> entry.getKey() + ": " + entry.getValue())
+                    .collect(Collectors.joining("; "));
+        }
+    }
+
+    /**
+     * A CSV record that cannot be parsed
+     */
+    static class MalformedCsvException extends IllegalArgumentException {
+
+        MalformedCsvException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * Minimal RFC 4180 reader: quoted fields may contain separators, doubled quotes and line breaks.
+     * Fields are capped at maxFieldLength characters, so a stray quote cannot pull the rest of the file into memory.
+     */
+    static class CsvRecordReader {
+
+        private final BufferedReader reader;
+        private final int maxFieldLength;
+        private long linesRead;
+        private long recordLine;
+
+        CsvRecordReader(BufferedReader reader, int maxFieldLength) {
+            this.reader = reader;
+            this.maxFieldLength = maxFieldLength;
+        }
+
+        /**
+         * Read the next record, or null at end of input
+         */
+        List<String> next() throws IOException {
+            String line = reader.readLine();
+            if (line == null) {
+                return null;
+            }
+            linesRead++;
+            recordLine = linesRead;
+
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            int i = 0;
+            while (true) {
+                if (i == line.length()) {
+                    if (!quoted) {
+                        break;
+                    }
+                    // Line break inside a quoted field: continue with the next physical line
+                    line = reader.readLine();
+                    if (line == null) {
+                        throw new MalformedCsvException("Unterminated quoted field starting at line " + recordLine);
+                    }
+                    linesRead++;
+                    checkLength(field);
+                    field.append('\n');
+                    i = 0;
+                    continue;
+                }
+                char c = line.charAt(i++);
+                if (quoted) {
+                    if (c == '"') {
+                        if (i < line.length() && line.charAt(i) == '"') {
+                            field.append('"');
+                            i++;
+                        } else {
+                            quoted = false;
+                        }
+                    } else {
+                        field.append(c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else {
+                    field.append(c);
+                }
+            }
+            checkLength(field);
+            fields.add(field.toString());
+            return fields;
+        }
+
+        private void checkLength(StringBuilder field) {
+            if (field.length() > maxFieldLength) {
+                throw new MalformedCsvException("Field longer than " + maxFieldLength
+                        + " characters in the record starting at line " + recordLine + " (unbalanced quote?)");
+            }
+        }
+
+        long getLinesRead() {
+            return linesRead;
+        }
+
+        long getRecordLine() {
+            return recordLine;
+        }
+    }
+}
@@ -1,20 +1,59 @@
 package com.example.catalog.service;
 
+import com.example.catalog.config.CacheConfig;
+import com.example.catalog.dto.BulkItemResultDto;
+import com.example.catalog.dto.BulkResultDto;
+import com.example.catalog.dto.BulkUpdateProductDto;
+import com.example.catalog.dto.CategoryStatsDto;
 import com.example.catalog.dto.CreateProductDto;
+import com.example.catalog.dto.CursorPageDto;
 import com.example.catalog.dto.ProductDto;
+import com.example.catalog.dto.ProductPatchDto;
+import com.example.catalog.dto.StockItemDto;
+import com.example.catalog.dto.StockLevelDto;
 import com.example.catalog.dto.UpdateProductDto;
 import com.example.catalog.entity.Product;
+import com.example.catalog.exception.InsufficientStockException;
+import com.example.catalog.exception.PreconditionFailedException;
+import com.example.catalog.exception.ProductNotFoundException;
 import com.example.catalog.repository.ProductRepository;
+import com.example.catalog.repository.ProductRepositoryCustom.DeletedProduct;
+import com.example.catalog.repository.ProductRepositoryCustom.StockUpdate;
+import com.example.catalog.search.ProductSearchEngine;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -24,6 +63,30 @@ public class ProductService {
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private ProductSearchEngine productSearchEngine;
+
+    @Autowired
+    private CategoryStatsService categoryStatsService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private Validator validator;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${catalog.bulk.batch-size:50}")
+    private int bulkBatchSize;
+
+    @Value("${catalog.bulk.max-items:5000}")
+    private int bulkMaxItems;
+
+    @Value("${catalog.low-stock.max-page-size:1000}")
+    private int lowStockMaxPageSize;
+
     /**
      * Get all products with pagination
      */
@@ -33,118 +96,632 @@ public class ProductService {
             Sort.by(sortBy).descending() : Sort.by(sortBy).ascending();
         
         Pageable pageable = PageRequest.of(page, size, sort);
-        Page<Product> products = productRepository.findAll(pageable);
-        
-        return products.map(this::convertToDto);
+        return productRepository.findAllDtos(pageable);
+    }
+
+    /**
+     * Get all products with pagination, reading only the selected fields (plus id and updatedAt)
+     */
+    @Transactional(readOnly = true)
+    public Page<ProductDto> getAllProducts(int page, int size, String sortBy, String sortDir, List<String> fields) {
+        Sort sort = sortDir.equalsIgnoreCase("desc") ?
+            Sort.by(sortBy).descending() : Sort.by(sortBy).ascending();
+
+        Pageable pageable = PageRequest.of(page, size, sort);
+        List<ProductDto> products = productRepository.findFields(ProductFields.withVersion(fields), null, pageable);
+        return PageableExecutionUtils.getPage(products, pageable, productRepository::count);
     }
 
     /**
-     * Get product by ID
+     * Get all products using keyset pagination ordered by (name, id)
      */
     @Transactional(readOnly = true)
+    public CursorPageDto<ProductDto> getAllProductsAfter(String cursor, int size) {
+        ProductCursor after = ProductCursor.decode(cursor);
+        List<ProductDto> products = productRepository.findAllDtosAfter(after.name(), after.id(), keysetPage(size));
+        return toCursorPage(products, size);
+    }
+
+    /**
+     * Get product by ID (served from the products cache when present). Not read-only, so a cache miss
+     * reads the primary and a replica's stale row never ends up cached.
+     */
+    @Cacheable(cacheNames = CacheConfig.PRODUCTS_CACHE, key = "#id", unless = "#result == null")
     public Optional<ProductDto> getProductById(Long id) {
-        return productRepository.findById(id)
-                .map(this::convertToDto);
+        return productRepository.findDtoById(id);
     }
 
     /**
      * Create a new product
      */
+    @CachePut(cacheNames = CacheConfig.PRODUCTS_CACHE, key = "#result.id")
     public ProductDto createProduct(CreateProductDto createProductDto) {
-        Product product = new Product();
-        product.setName(createProductDto.getName());
-        product.setDescription(createProductDto.getDescription());
-        product.setPrice(createProductDto.getPrice());
-        product.setCategory(createProductDto.getCategory());
-        product.setStock(createProductDto.getStock());
+        Product product = toEntity(createProductDto);
 
-        Product savedProduct = productRepository.save(product);
+        // Flush so the generated timestamps are populated in the returned (and cached) DTO
+        Product savedProduct = productRepository.saveAndFlush(product);
+        productSearchEngine.onProductSaved(savedProduct);
         return convertToDto(savedProduct);
     }
 
     /**
-     * Update an existing product
+     * Update an existing product; null properties keep their value.
+     * expectedVersions (from If-Match) must contain the current version unless null.
      */
-    public Optional<ProductDto> updateProduct(Long id, UpdateProductDto updateProductDto) {
+    @CachePut(cacheNames = CacheConfig.PRODUCTS_CACHE, key = "#id", unless = "#result == null")
+    public Optional<ProductDto> updateProduct(Long id, UpdateProductDto updateProductDto, Collection<Long> expectedVersions) {
         return productRepository.findById(id)
                 .map(existingProduct -> {
-                    if (updateProductDto.getName() != null) {
-                        existingProduct.setName(updateProductDto.getName());
-                    }
-                    if (updateProductDto.getDescription() != null) {
-                        existingProduct.setDescription(updateProductDto.getDescription());
-                    }
-                    if (updateProductDto.getPrice() != null) {
-                        existingProduct.setPrice(updateProductDto.getPrice());
-                    }
-                    if (updateProductDto.getCategory() != null) {
-                        existingProduct.setCategory(updateProductDto.getCategory());
-                    }
-                    if (updateProductDto.getStock() != null) {
-                        existingProduct.setStock(updateProductDto.getStock());
-                    }
+                    checkVersion(existingProduct, expectedVersions);
+                    applyUpdate(existingProduct, updateProductDto);
 
-                    Product updatedProduct = productRepository.save(existingProduct);
+                    // Fails with an OptimisticLockingFailureException if another writer got there first
+                    Product updatedProduct = productRepository.saveAndFlush(existingProduct);
+                    productSearchEngine.onProductSaved(updatedProduct);
                     return convertToDto(updatedProduct);
                 });
     }
 
+    /**
+     * Apply a JSON merge patch to a product. Only the columns whose value changes are written
+     * (Product is @DynamicUpdate); when nothing changes no UPDATE is issued and the version stays the same.
+     */
+    @CachePut(cacheNames = CacheConfig.PRODUCTS_CACHE, key = "#id", unless = "#result == null")
+    public Optional<ProductDto> patchProduct(Long id, ProductPatchDto patch, Collection<Long> expectedVersions) {
+        return productRepository.findById(id)
+                .map(product -> {
+                    checkVersion(product, expectedVersions);
+                    if (applyPatch(product, patch)) {
+                        productRepository.flush();
+                        productSearchEngine.onProductSaved(product);
+                    }
+                    return convertToDto(product);
+                });
+    }
+
     /**
      * Delete a product by ID
      */
+    @CacheEvict(cacheNames = CacheConfig.PRODUCTS_CACHE, key = "#id")
     public boolean deleteProduct(Long id) {
-        if (productRepository.existsById(id)) {
-            productRepository.deleteById(id);
-            return true;
+        // One SELECT then the DELETE; the loaded entity gives CategoryStatsListener its category
+        return productRepository.findById(id)
+                .map(product -> {
+                    productRepository.delete(product);
+                    productSearchEngine.onProductDeleted(id);
+                    return true;
+                })
+                .orElse(false);
+    }
+
+    /**
+     * Create many products; valid items are inserted in JDBC batches of catalog.bulk.batch-size,
+     * invalid ones are reported per item and skipped
+     */
+    public BulkResultDto bulkCreateProducts(List<CreateProductDto> items) {
+        checkBulkSize(items);
+        BulkResultDto result = new BulkResultDto();
+        List<Product> batch = new ArrayList<>(bulkBatchSize);
+        List<Integer> batchIndexes = new ArrayList<>(bulkBatchSize);
+
+        for (int index = 0; index < items.size(); index++) {
+            CreateProductDto item = items.get(index);
+            Map<String, String> errors = validate(item);
+            if (!errors.isEmpty()) {
+                result.addFailure(index, null, errors);
+                continue;
+            }
+            batch.add(toEntity(item));
+            batchIndexes.add(index);
+            if (batch.size() == bulkBatchSize) {
+                saveBatch(batch, batchIndexes, result);
+            }
         }
-        return false;
+        saveBatch(batch, batchIndexes, result);
+
+        return result.sorted();
     }
 
     /**
-     * Search products by name or description
+     * Update many products; each chunk is loaded with one IN query and flushed as a JDBC batch
      */
-    @Transactional(readOnly = true)
+    @CacheEvict(cacheNames = CacheConfig.PRODUCTS_CACHE, allEntries = true)
+    public BulkResultDto bulkUpdateProducts(List<BulkUpdateProductDto> items) {
+        checkBulkSize(items);
+        BulkResultDto result = new BulkResultDto();
+        List<Integer> validIndexes = new ArrayList<>();
+
+        for (int index = 0; index < items.size(); index++) {
+            BulkUpdateProductDto item = items.get(index);
+            Map<String, String> errors = validate(item);
+            if (errors.isEmpty()) {
+                validIndexes.add(index);
+            } else {
+                // A null element of the body is reported like any other invalid item
+                result.addFailure(index, item == null ? null : item.getId(), errors);
+            }
+        }
+
+        for (int from = 0; from < validIndexes.size(); from += bulkBatchSize) {
+            List<Integer> chunk = validIndexes.subList(from, Math.min(from + bulkBatchSize, validIndexes.size()));
+            Set<Long> ids = chunk.stream().map(index -> items.get(index).getId()).collect(Collectors.toSet());
+            Map<Long, Product> products = productRepository.findAllById(ids).stream()
+                    .collect(Collectors.toMap(Product::getId, Function.identity()));
+
+            for (Integer index : chunk) {
+                BulkUpdateProductDto item = items.get(index);
+                Product product = products.get(item.getId());
+                if (product == null) {
+                    result.addFailure(index, item.getId(), Map.of("id", "Product not found"));
+                    continue;
+                }
+                applyUpdate(product, item);
+                result.addSuccess(index, item.getId(), BulkItemResultDto.UPDATED);
+            }
+            entityManager.flush();
+            products.values().forEach(productSearchEngine::onProductSaved);
+            entityManager.clear();
+        }
+
+        return result.sorted();
+    }
+
+    /**
+     * Delete many products with one DELETE ... WHERE id IN (...) per chunk (RETURNING the deleted rows on Postgres)
+     */
+    @CacheEvict(cacheNames = CacheConfig.PRODUCTS_CACHE, allEntries = true)
+    public BulkResultDto bulkDeleteProducts(List<Long> ids) {
+        checkBulkSize(ids);
+        BulkResultDto result = new BulkResultDto();
+
+        for (int from = 0; from < ids.size(); from += bulkBatchSize) {
+            List<Long> chunk = ids.subList(from, Math.min(from + bulkBatchSize, ids.size()));
+            Set<Long> requested = chunk.stream().filter(Objects::nonNull).collect(Collectors.toSet());
+            Set<Long> existing = new HashSet<>();
+            for (DeletedProduct deleted : productRepository.deleteAllReturning(requested)) {
+                // The batch DELETE bypasses entity callbacks, so record the summary changes here
+                categoryStatsService.productRemoved(deleted.category(), deleted.price(), deleted.stock());
+                productSearchEngine.onProductDeleted(deleted.id());
+                existing.add(deleted.id());
+            }
+
+            for (int offset = 0; offset < chunk.size(); offset++) {
+                Long id = chunk.get(offset);
+                if (existing.remove(id)) {
+                    result.addSuccess(from + offset, id, BulkItemResultDto.DELETED);
+                } else {
+                    result.addFailure(from + offset, id, Map.of("id", "Product not found"));
+                }
+            }
+        }
+
+        return result.sorted();
+    }
+
+    /**
+     * Add delta to the stock of a product with one conditional UPDATE, so concurrent adjustments never
+     * overwrite each other. Empty when the product does not exist; throws InsufficientStockException
+     * when the stock would go negative.
+     */
+    public Optional<StockLevelDto> adjustStock(Long id, int delta) {
+        return applyStockDelta(id, delta).map(stock -> new StockLevelDto(id, stock));
+    }
+
+    /**
+     * Take stock from several products in one transaction: either every item is reserved or none is
+     */
+    public List<StockLevelDto> reserveStock(List<StockItemDto> items) {
+        return applyStockItems(items, -1);
+    }
+
+    /**
+     * Give stock back to several products in one transaction
+     */
+    public List<StockLevelDto> releaseStock(List<StockItemDto> items) {
+        return applyStockItems(items, 1);
+    }
+
+    /**
+     * Apply coalesced stock deltas (see StockWriteBehindBuffer) in one transaction, in ascending id order.
+     * Returns the new stock of every product updated; products that no longer exist or would go
+     * negative are left out and keep their stock.
+     */
+    public Map<Long, Integer> applyStockDeltas(Map<Long, Integer> deltas) {
+        LocalDateTime now = LocalDateTime.now();
+        Map<Long, Integer> stocks = new HashMap<>();
+        for (Map.Entry<Long, Integer> delta : new TreeMap<>(deltas).entrySet()) {
+            tryApplyStockDelta(delta.getKey(), delta.getValue(), now)
+                    .ifPresent(stock -> stocks.put(delta.getKey(), stock));
+        }
+        return stocks;
+    }
+
+    /**
+     * Current stock of a product, read as a single column. Not read-only, so it comes from the primary:
+     * the write-behind buffer checks reservations against it.
+     */
+    public Optional<Integer> getStock(Long id) {
+        return productRepository.findStockById(id);
+    }
+
+    /**
+     * Validate stock items and sum their quantities per product, in ascending id order so concurrent
+     * batches lock their rows in the same order and cannot deadlock. Needs no transaction.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public Map<Long, Integer> mergeStockItems(List<StockItemDto> items) {
+        checkBulkSize(items);
+        Map<Long, Integer> quantities = new TreeMap<>();
+        for (int index = 0; index < items.size(); index++) {
+            Map<String, String> errors = validate(items.get(index));
+            if (!errors.isEmpty()) {
+                Map.Entry<String, String> error = errors.entrySet().iterator().next();
+                throw new IllegalArgumentException("Item " + index + " " + error.getKey() + ": " + error.getValue());
+            }
+            quantities.merge(items.get(index).getId(), items.get(index).getQuantity(), Math::addExact);
+        }
+        return quantities;
+    }
+
+    /**
+     * Search products by name or description, ranked by the configured search engine.
+     * Engines backed by the database open their own read-only transaction; the in-memory one needs no connection.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
     public Page<ProductDto> searchProducts(String searchTerm, int page, int size) {
-        Pageable pageable = PageRequest.of(page, size, Sort.by("name").ascending());
-        Page<Product> products = productRepository.searchProducts(searchTerm, pageable);
+        Pageable pageable = PageRequest.of(page, size);
+        Page<Product> products = productSearchEngine.search(searchTerm, pageable);
         
-        return products.map(this::convertToDto);
+        return products.map(ProductService::convertToDto);
     }
 
     /**
-     * Get products by category
+     * Search products by name or description using keyset pagination
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDto<ProductDto> searchProductsAfter(String searchTerm, String cursor, int size) {
+        ProductCursor after = ProductCursor.decode(cursor);
+        List<ProductDto> products = productRepository.searchProductsAfter(searchTerm, after.name(), after.id(), keysetPage(size));
+        return toCursorPage(products, size);
+    }
+
+    /**
+     * Get products by category; the total is read from category_stats instead of a COUNT query
      */
     @Transactional(readOnly = true)
     public Page<ProductDto> getProductsByCategory(String category, int page, int size) {
         Pageable pageable = PageRequest.of(page, size, Sort.by("name").ascending());
-        Page<Product> products = productRepository.findByCategoryIgnoreCase(category, pageable);
-        
-        return products.map(this::convertToDto);
+        List<ProductDto> products = productRepository.findPageByCategory(category, pageable);
+        return PageableExecutionUtils.getPage(products, pageable, () -> countByCategory(category));
     }
 
     /**
-     * Get all distinct categories
+     * Get products by category, reading only the selected fields (plus id and updatedAt)
+     */
+    @Transactional(readOnly = true)
+    public Page<ProductDto> getProductsByCategory(String category, int page, int size, List<String> fields) {
+        Pageable pageable = PageRequest.of(page, size, Sort.by("name").ascending());
+        List<ProductDto> products = productRepository.findFields(ProductFields.withVersion(fields), category, pageable);
+        return PageableExecutionUtils.getPage(products, pageable, () -> countByCategory(category));
+    }
+
+    /**
+     * Get products by category using keyset pagination
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDto<ProductDto> getProductsByCategoryAfter(String category, String cursor, int size) {
+        ProductCursor after = ProductCursor.decode(cursor);
+        List<ProductDto> products = productRepository.findByCategoryAfter(category, after.name(), after.id(), keysetPage(size));
+        return toCursorPage(products, size);
+    }
+
+    /**
+     * Get all categories that have products, from the category_stats summary
      */
     @Transactional(readOnly = true)
     public List<String> getAllCategories() {
-        return productRepository.findDistinctCategories();
+        return categoryStatsService.getCategoryNames();
+    }
+
+    /**
+     * Get product count, total stock and price range of every category
+     */
+    @Transactional(readOnly = true)
+    public List<CategoryStatsDto> getCategoryStats() {
+        return categoryStatsService.getAllCategoryStats();
     }
 
     /**
-     * Get products with low stock
+     * Get products with low stock using keyset pagination ordered by (stock, id).
+     * The page size is capped by catalog.low-stock.max-page-size, so one request never materializes more rows.
      */
     @Transactional(readOnly = true)
-    public List<ProductDto> getProductsWithLowStock(Integer threshold) {
-        List<Product> products = productRepository.findProductsWithLowStock(threshold);
-        return products.stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+    public CursorPageDto<ProductDto> getProductsWithLowStockAfter(Integer threshold, String cursor, int size) {
+        checkLowStockThreshold(threshold);
+        if (size > lowStockMaxPageSize) {
+            throw new IllegalArgumentException("Page size must not exceed " + lowStockMaxPageSize);
+        }
+        StockCursor after = StockCursor.decode(cursor);
+        List<ProductDto> products = isIndexedLowStockThreshold(threshold)
+                ? productRepository.findLowStockAfter(threshold, after.stock(), after.id(), keysetPage(size))
+                : productRepository.findLowStockAfterUnbounded(threshold, after.stock(), after.id(), keysetPage(size));
+
+        boolean hasNext = products.size() > size;
+        List<ProductDto> page = hasNext ? products.subList(0, size) : products;
+        String nextCursor = null;
+        if (hasNext) {
+            ProductDto last = page.get(page.size() - 1);
+            nextCursor = new StockCursor(last.getStock(), last.getId()).encode();
+        }
+        return new CursorPageDto<>(page, size, nextCursor);
+    }
+
+    /**
+     * Largest low-stock page; also the number of rows returned by the unpaginated low-stock listing
+     */
+    public int getLowStockMaxPageSize() {
+        return lowStockMaxPageSize;
+    }
+
+    /**
+     * Apply a product change published by the database, made on this node or another one: evict the cached
+     * product unless it is already at that version, and let the search engine catch up. Returns whether the
+     * cached product was evicted. Needs no transaction.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public boolean onProductChanged(Long id, boolean deleted, Long version) {
+        ProductDto cached = peekCachedProduct(id);
+        boolean evict = cached != null && (deleted || version == null
+                || cached.getVersion() == null || cached.getVersion() < version);
+        if (evict) {
+            Cache cache = cacheManager.getCache(CacheConfig.PRODUCTS_CACHE);
+            if (cache != null) {
+                cache.evict(id);
+            }
+        }
+        productSearchEngine.onProductChanged(id, deleted, version);
+        return evict;
+    }
+
+    /**
+     * Drop the cached products and resynchronize the search engine when change notifications may have been missed
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public void onChangesMissed() {
+        Cache cache = cacheManager.getCache(CacheConfig.PRODUCTS_CACHE);
+        if (cache != null) {
+            cache.clear();
+        }
+        productSearchEngine.onChangesMissed();
+    }
+
+    private List<StockLevelDto> applyStockItems(List<StockItemDto> items, int sign) {
+        List<StockLevelDto> levels = new ArrayList<>();
+        for (Map.Entry<Long, Integer> quantity : mergeStockItems(items).entrySet()) {
+            Long id = quantity.getKey();
+            // Any failure rolls back the items already applied
+            Integer stock = applyStockDelta(id, sign * quantity.getValue())
+                    .orElseThrow(() -> new ProductNotFoundException(id));
+            levels.add(new StockLevelDto(id, stock));
+        }
+        return levels;
+    }
+
+    private Optional<Integer> applyStockDelta(Long id, int delta) {
+        Optional<Integer> stock = tryApplyStockDelta(id, delta, LocalDateTime.now());
+        if (stock.isEmpty()) {
+            // Only the failure path reads the row, to tell a missing product from a short one
+            Optional<Integer> available = productRepository.findStockById(id);
+            if (available.isPresent()) {
+                throw new InsufficientStockException(id, available.get(), -delta);
+            }
+        }
+        return stock;
+    }
+
+    /**
+     * Apply one conditional stock UPDATE and its side effects; empty when no row was updated
+     */
+    private Optional<Integer> tryApplyStockDelta(Long id, int delta, LocalDateTime now) {
+        Optional<StockUpdate> update = productRepository.adjustStock(id, delta, now);
+        update.ifPresent(applied -> {
+            categoryStatsService.addStockDelta(applied.category(), delta);
+            productSearchEngine.onStockAdjusted(id, applied.stock(), applied.version(), now);
+            evictCachedProductAfterCommit(id);
+        });
+        return update.map(StockUpdate::stock);
+    }
+
+    /**
+     * Evict one product from the cache now and again once the transaction commits, so a read racing
+     * the commit cannot leave the replaced value cached
+     */
+    private void evictCachedProductAfterCommit(Long id) {
+        Cache cache = cacheManager.getCache(CacheConfig.PRODUCTS_CACHE);
+        if (cache == null) {
+            return;
+        }
+        cache.evict(id);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cache.evict(id);
+                }
+            });
+        }
+    }
+
+    /**
+     * Read the products cache without touching its hit/miss statistics
+     */
+    private ProductDto peekCachedProduct(Long id) {
+        Cache cache = cacheManager.getCache(CacheConfig.PRODUCTS_CACHE);
+        if (cache != null && cache.getNativeCache() instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> nativeCache) {
+            return nativeCache.asMap().get(id) instanceof ProductDto product ? product : null;
+        }
+        return null;
+    }
+
+    private void saveBatch(List<Product> batch, List<Integer> batchIndexes, BulkResultDto result) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        productRepository.saveAll(batch);
+        entityManager.flush();
+        for (int i = 0; i < batch.size(); i++) {
+            Product product = batch.get(i);
+            productSearchEngine.onProductSaved(product);
+            result.addSuccess(batchIndexes.get(i), product.getId(), BulkItemResultDto.CREATED);
+        }
+        // Keep the persistence context small across batches
+        entityManager.clear();
+        batch.clear();
+        batchIndexes.clear();
+    }
+
+    /**
+     * Reject missing or negative low-stock thresholds
+     */
+    public static void checkLowStockThreshold(Integer threshold) {
+        if (threshold == null || threshold < 0) {
+            throw new IllegalArgumentException("Low stock threshold must not be negative");
+        }
+    }
+
+    /**
+     * Whether the low-stock queries bounded by the partial idx_products_low_stock cover the threshold
+     */
+    public static boolean isIndexedLowStockThreshold(int threshold) {
+        return threshold <= ProductRepository.LOW_STOCK_MAX_THRESHOLD;
+    }
+
+    private void checkBulkSize(List<?> items) {
+        if (items == null || items.isEmpty()) {
+            throw new IllegalArgumentException("Bulk request must contain at least one item");
+        }
+        if (items.size() > bulkMaxItems) {
+            throw new IllegalArgumentException("Bulk request must not exceed " + bulkMaxItems + " items");
+        }
+    }
+
+    private Map<String, String> validate(Object item) {
+        if (item == null) {
+            return Map.of("item", "Item must not be null");
+        }
+        Map<String, String> errors = new HashMap<>();
+        for (ConstraintViolation<Object> violation : validator.validate(item)) {
+            errors.put(violation.getPropertyPath().toString(), violation.getMessage());
+        }
+        return errors;
+    }
+
+    private Product toEntity(CreateProductDto createProductDto) {
+        Product product = new Product();
+        product.setName(createProductDto.getName());
+        product.setDescription(createProductDto.getDescription());
+        product.setPrice(createProductDto.getPrice());
+        product.setCategory(createProductDto.getCategory());
+        product.setStock(createProductDto.getStock());
+        return product;
+    }
+
+    private static void checkVersion(Product product, Collection<Long> expectedVersions) {
+        if (expectedVersions != null && !expectedVersions.contains(product.getVersion())) {
+            throw new PreconditionFailedException(product.getId(), product.getVersion());
+        }
+    }
+
+    /**
+     * Set the properties present in the patch that differ from the current values; returns whether any did
+     */
+    private static boolean applyPatch(Product product, ProductPatchDto patch) {
+        // Required columns cannot be cleared
+        checkNotNull(patch, "name", patch.getName());
+        checkNotNull(patch, "price", patch.getPrice());
+        checkNotNull(patch, "stock", patch.getStock());
+
+        boolean changed = false;
+        if (patch.isPresent("name") && !Objects.equals(product.getName(), patch.getName())) {
+            product.setName(patch.getName());
+            changed = true;
+        }
+        if (patch.isPresent("description") && !Objects.equals(product.getDescription(), patch.getDescription())) {
+            product.setDescription(patch.getDescription());
+            changed = true;
+        }
+        if (patch.isPresent("price") && product.getPrice().compareTo(patch.getPrice()) != 0) {
+            product.setPrice(patch.getPrice());
+            changed = true;
+        }
+        if (patch.isPresent("category") && !Objects.equals(product.getCategory(), patch.getCategory())) {
+            product.setCategory(patch.getCategory());
+            changed = true;
+        }
+        if (patch.isPresent("stock") && !Objects.equals(product.getStock(), patch.getStock())) {
+            product.setStock(patch.getStock());
+            changed = true;
+        }
+        return changed;
+    }
+
+    private static void checkNotNull(ProductPatchDto patch, String property, Object value) {
+        if (patch.isPresent(property) && value == null) {
+            throw new IllegalArgumentException(property + " must not be null");
+        }
+    }
+
+    private void applyUpdate(Product product, UpdateProductDto updateProductDto) {
+        if (updateProductDto.getName() != null) {
+            product.setName(updateProductDto.getName());
+        }
+        if (updateProductDto.getDescription() != null) {
+            product.setDescription(updateProductDto.getDescription());
+        }
+        if (updateProductDto.getPrice() != null) {
+            product.setPrice(updateProductDto.getPrice());
+        }
+        if (updateProductDto.getCategory() != null) {
+            product.setCategory(updateProductDto.getCategory());
+        }
+        if (updateProductDto.getStock() != null) {
+            product.setStock(updateProductDto.getStock());
+        }
+    }
+
+    /**
+     * Fetch one row beyond the requested size to learn whether a next page exists without counting
+     */
+    private Pageable keysetPage(int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Page size must be greater than 0");
+        }
+        return PageRequest.ofSize(size + 1);
+    }
+
+    private CursorPageDto<ProductDto> toCursorPage(List<ProductDto> products, int size) {
+        boolean hasNext = products.size() > size;
+        List<ProductDto> page = hasNext ? products.subList(0, size) : products;
+        String nextCursor = null;
+        if (hasNext) {
+            ProductDto last = page.get(page.size() - 1);
+            nextCursor = new ProductCursor(last.getName(), last.getId()).encode();
+        }
+        return new CursorPageDto<>(page, size, nextCursor);
+    }
+
+    /**
+     * Category total from category_stats, falling back to a COUNT for categories not tracked yet
+     */
+    private long countByCategory(String category) {
+        return categoryStatsService.getProductCount(category)
+                .orElseGet(() -> productRepository.countByCategoryIgnoreCase(category));
     }
 
     /**
      * Convert Product entity to ProductDto
      */
-    private ProductDto convertToDto(Product product) {
+    static ProductDto convertToDto(Product product) {
         return new ProductDto(
                 product.getId(),
                 product.getName(),
@@ -153,7 +730,8 @@ public class ProductService {
                 product.getCategory(),
                 product.getStock(),
                 product.getCreatedAt(),
-                product.getUpdatedAt()
+                product.getUpdatedAt(),
+                product.getVersion()
         );
     }
 }
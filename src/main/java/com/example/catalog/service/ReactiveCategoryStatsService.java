@@ -0,0 +1,183 @@
+package com.example.catalog.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Locale;
+
+/**
+ * Keeps category_stats in step with the writes of {@link ReactiveProductService}, with the same incremental
+ * UPDATE and row lock as {@link CategoryStatsService} so both stacks can share a database.
+ * Each product write changes at most two categories; their deltas run in the caller's R2DBC transaction,
+ * in key order. Summary rows are created beforehand by {@link #ensureCategory}, outside that transaction,
+ * because a duplicate-key insert would abort it on PostgreSQL.
+ */
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveCategoryStatsService {
+
+    // Named-parameter form of CategoryStatsService's APPLY_DELTA
+    private static final String APPLY_DELTA = "UPDATE category_stats SET " +
+            "category = COALESCE(LEAST(category, :name), category), " +
+            "product_count = product_count + :count, " +
+            "price_sum = price_sum + :priceSum, " +
+            "total_stock = total_stock + :stock, " +
+            "min_price = CASE WHEN :removedMin <= min_price " +
+            "THEN (SELECT MIN(p.price) FROM products p WHERE LOWER(p.category) = :categoryKey) " +
+            "ELSE COALESCE(LEAST(min_price, :addedMin), min_price, :addedMin) END, " +
+            "max_price = CASE WHEN :removedMax >= max_price " +
+            "THEN (SELECT MAX(p.price) FROM products p WHERE LOWER(p.category) = :categoryKey) " +
+            "ELSE COALESCE(GREATEST(max_price, :addedMax), max_price, :addedMax) END, " +
+            "updated_at = :now " +
+            "WHERE category_key = :categoryKey";
+
+    private static final String LOCK_SUMMARY =
+            "SELECT category_key FROM category_stats WHERE category_key = :categoryKey FOR UPDATE";
+
+    @Autowired
+    private R2dbcEntityTemplate entityTemplate;
+
+    /**
+     * Create the summary row of a category seen for the first time; a concurrent creation is not an error.
+     * Run it before the write transaction. An empty row is harmless: categories without products are not listed.
+     */
+    public Mono<Void> ensureCategory(String category) {
+        if (category == null) {
+            return Mono.empty();
+        }
+        DatabaseClient client = entityTemplate.getDatabaseClient();
+        return client.sql("SELECT COUNT(*) FROM category_stats WHERE category_key = :categoryKey")
+                .bind("categoryKey", key(category))
+                .map(row -> row.get(0, Long.class))
+                .one()
+                .filter(count -> count == 0)
+                .flatMap(count -> client.sql("INSERT INTO category_stats " +
+                                "(category_key, category, product_count, total_stock, price_sum, updated_at) " +
+                                "VALUES (:categoryKey, :name, 0, 0, 0, CURRENT_TIMESTAMP)")
+                        .bind("categoryKey", key(category))
+                        .bind("name", category)
+                        .then())
+                .onErrorResume(DataIntegrityViolationException.class, e -> Mono.empty());
+    }
+
+    /**
+     * Record a product written for the first time
+     */
+    public Mono<Void> productAdded(String category, BigDecimal price, Integer stock) {
+        return apply(category, added(category, price, stock));
+    }
+
+    /**
+     * Record a deleted product, with the values it had in the database
+     */
+    public Mono<Void> productRemoved(String category, BigDecimal price, Integer stock) {
+        return apply(category, removed(price, stock));
+    }
+
+    /**
+     * Record an updated product, from the values it had in the database to the ones written
+     */
+    public Mono<Void> productChanged(String oldCategory, BigDecimal oldPrice, Integer oldStock,
+                                     String category, BigDecimal price, Integer stock) {
+        if (oldCategory == null || category == null || !key(oldCategory).equals(key(category))) {
+            // Key order, as on the servlet stack, so concurrent writers lock summary rows in the same order
+            Mono<Void> remove = productRemoved(oldCategory, oldPrice, oldStock);
+            Mono<Void> add = productAdded(category, price, stock);
+            return oldCategory != null && category != null && key(category).compareTo(key(oldCategory)) < 0
+                    ? add.then(remove) : remove.then(add);
+        }
+        Delta delta = new Delta();
+        delta.name = oldCategory.equals(category) ? null : category;
+        delta.stock = value(stock) - value(oldStock);
+        if (oldPrice == null || price == null || oldPrice.compareTo(price) != 0) {
+            // Nets to zero products; the old price may have been a bound of the range
+            delta.priceSum = orZero(price).subtract(orZero(oldPrice));
+            delta.removedPrice = oldPrice;
+            delta.addedPrice = price;
+        }
+        return apply(category, delta);
+    }
+
+    private Mono<Void> apply(String category, Delta delta) {
+        if (category == null || delta.isEmpty()) {
+            return Mono.empty();
+        }
+        DatabaseClient client = entityTemplate.getDatabaseClient();
+        String categoryKey = key(category);
+        Mono<Void> lock = delta.removedPrice == null ? Mono.empty()
+                : client.sql(LOCK_SUMMARY).bind("categoryKey", categoryKey).then();
+        DatabaseClient.GenericExecuteSpec update = client.sql(APPLY_DELTA)
+                .bind("count", delta.count)
+                .bind("priceSum", delta.priceSum)
+                .bind("stock", delta.stock)
+                .bind("now", LocalDateTime.now())
+                .bind("categoryKey", categoryKey);
+        update = delta.name == null ? update.bindNull("name", String.class) : update.bind("name", delta.name);
+        update = bindPrice(update, "removedMin", delta.removedPrice);
+        update = bindPrice(update, "removedMax", delta.removedPrice);
+        update = bindPrice(update, "addedMin", delta.addedPrice);
+        update = bindPrice(update, "addedMax", delta.addedPrice);
+        return lock.then(update.then());
+    }
+
+    private static DatabaseClient.GenericExecuteSpec bindPrice(DatabaseClient.GenericExecuteSpec spec,
+                                                               String name, BigDecimal price) {
+        return price == null ? spec.bindNull(name, BigDecimal.class) : spec.bind(name, price);
+    }
+
+    private static Delta added(String category, BigDecimal price, Integer stock) {
+        Delta delta = new Delta();
+        delta.name = category;
+        delta.count = 1;
+        delta.priceSum = orZero(price);
+        delta.stock = value(stock);
+        delta.addedPrice = price;
+        return delta;
+    }
+
+    private static Delta removed(BigDecimal price, Integer stock) {
+        Delta delta = new Delta();
+        delta.count = -1;
+        delta.priceSum = orZero(price).negate();
+        delta.stock = -value(stock);
+        delta.removedPrice = price;
+        return delta;
+    }
+
+    /**
+     * Change of one category by a single product write
+     */
+    private static class Delta {
+
+        private String name;
+        private long count;
+        private BigDecimal priceSum = BigDecimal.ZERO;
+        private long stock;
+        private BigDecimal addedPrice;
+        private BigDecimal removedPrice;
+
+        boolean isEmpty() {
+            return name == null && count == 0 && priceSum.signum() == 0 && stock == 0
+                    && addedPrice == null && removedPrice == null;
+        }
+    }
+
+    private static BigDecimal orZero(BigDecimal price) {
+        return price == null ? BigDecimal.ZERO : price;
+    }
+
+    private static long value(Integer stock) {
+        return stock == null ? 0 : stock;
+    }
+
+    private static String key(String category) {
+        return category.toLowerCase(Locale.ROOT);
+    }
+}
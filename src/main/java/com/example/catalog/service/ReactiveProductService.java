@@ -0,0 +1,230 @@
+package com.example.catalog.service;
+
+import com.example.catalog.dto.CreateProductDto;
+import com.example.catalog.dto.ProductDto;
+import com.example.catalog.dto.UpdateProductDto;
+import com.example.catalog.entity.ProductRecord;
+import com.example.catalog.repository.ReactiveProductRepository;
+import io.r2dbc.spi.ConnectionFactory;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Reactive counterpart of {@link ProductService} (WEB_STACK=reactive).
+ * Reads use the LIKE search and offset pagination of the servlet stack; the products cache and the
+ * pluggable search engines are not involved here. Writes keep category_stats up to date through
+ * {@link ReactiveCategoryStatsService}, in the same transaction.
+ */
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveProductService {
+
+    @Autowired
+    private ReactiveProductRepository productRepository;
+
+    @Autowired
+    private R2dbcEntityTemplate entityTemplate;
+
+    @Autowired
+    private ConnectionFactory connectionFactory;
+
+    @Autowired
+    private ReactiveCategoryStatsService categoryStatsService;
+
+    @Value("${catalog.low-stock.max-page-size:1000}")
+    private int lowStockMaxPageSize;
+
+    // Not a bean: a second TransactionManager would make the JPA one ambiguous for @Transactional
+    private TransactionalOperator transactionalOperator;
+
+    @PostConstruct
+    void initTransactions() {
+        transactionalOperator = TransactionalOperator.create(new R2dbcTransactionManager(connectionFactory));
+    }
+
+    /**
+     * Get all products with pagination
+     */
+    public Mono<Page<ProductDto>> getAllProducts(int page, int size, String sortBy, String sortDir) {
+        Sort sort = sortDir.equalsIgnoreCase("desc") ?
+            Sort.by(sortBy).descending() : Sort.by(sortBy).ascending();
+
+        Pageable pageable = PageRequest.of(page, size, sort);
+        return toPage(productRepository.findAllBy(pageable), productRepository.count(), pageable);
+    }
+
+    /**
+     * Get product by ID
+     */
+    public Mono<ProductDto> getProductById(Long id) {
+        return productRepository.findById(id)
+                .map(ReactiveProductService::convertToDto);
+    }
+
+    /**
+     * Create a new product
+     */
+    public Mono<ProductDto> createProduct(CreateProductDto createProductDto) {
+        ProductRecord product = new ProductRecord();
+        product.setName(createProductDto.getName());
+        product.setDescription(createProductDto.getDescription());
+        product.setPrice(createProductDto.getPrice());
+        product.setCategory(createProductDto.getCategory());
+        product.setStock(createProductDto.getStock());
+        LocalDateTime now = LocalDateTime.now();
+        product.setCreatedAt(now);
+        product.setUpdatedAt(now);
+
+        Mono<ProductDto> create = productRepository.nextId()
+                .flatMap(id -> {
+                    product.setId(id);
+                    return entityTemplate.insert(product);
+                })
+                .flatMap(saved -> categoryStatsService
+                        .productAdded(saved.getCategory(), saved.getPrice(), saved.getStock())
+                        .thenReturn(saved))
+                .map(ReactiveProductService::convertToDto)
+                .as(transactionalOperator::transactional);
+        return categoryStatsService.ensureCategory(product.getCategory()).then(create);
+    }
+
+    /**
+     * Update an existing product
+     */
+    public Mono<ProductDto> updateProduct(Long id, UpdateProductDto updateProductDto) {
+        Mono<ProductDto> update = productRepository.findById(id)
+                .flatMap(existingProduct -> {
+                    String oldCategory = existingProduct.getCategory();
+                    BigDecimal oldPrice = existingProduct.getPrice();
+                    Integer oldStock = existingProduct.getStock();
+                    applyUpdate(existingProduct, updateProductDto);
+                    existingProduct.setUpdatedAt(LocalDateTime.now());
+                    // The versioned save fails if the product changed since it was read, so the old values hold
+                    return productRepository.save(existingProduct)
+                            .flatMap(saved -> categoryStatsService
+                                    .productChanged(oldCategory, oldPrice, oldStock,
+                                            saved.getCategory(), saved.getPrice(), saved.getStock())
+                                    .thenReturn(saved));
+                })
+                .map(ReactiveProductService::convertToDto)
+                .as(transactionalOperator::transactional);
+        return categoryStatsService.ensureCategory(updateProductDto.getCategory()).then(update);
+    }
+
+    /**
+     * Delete a product by ID
+     */
+    public Mono<Boolean> deleteProduct(Long id) {
+        return productRepository.findByIdForUpdate(id)
+                .flatMap(product -> productRepository.deleteProductById(id)
+                        .filter(deleted -> deleted > 0)
+                        .flatMap(deleted -> categoryStatsService
+                                .productRemoved(product.getCategory(), product.getPrice(), product.getStock())
+                                .thenReturn(true)))
+                .defaultIfEmpty(false)
+                .as(transactionalOperator::transactional);
+    }
+
+    /**
+     * Search products by name or description
+     */
+    public Mono<Page<ProductDto>> searchProducts(String searchTerm, int page, int size) {
+        Pageable pageable = PageRequest.of(page, size);
+        return toPage(productRepository.searchProducts(searchTerm, size, pageable.getOffset()),
+                productRepository.countSearchProducts(searchTerm), pageable);
+    }
+
+    /**
+     * Get products by category
+     */
+    public Mono<Page<ProductDto>> getProductsByCategory(String category, int page, int size) {
+        Pageable pageable = PageRequest.of(page, size, Sort.by("name").ascending());
+        return toPage(productRepository.findByCategory(category, size, pageable.getOffset()),
+                productRepository.countByCategory(category), pageable);
+    }
+
+    /**
+     * Get all distinct categories
+     */
+    public Flux<String> getAllCategories() {
+        return productRepository.findDistinctCategories();
+    }
+
+    /**
+     * Get products with low stock, lowest stock first, capped at catalog.low-stock.max-page-size
+     */
+    public Flux<ProductDto> getProductsWithLowStock(Integer threshold) {
+        ProductService.checkLowStockThreshold(threshold);
+        return (ProductService.isIndexedLowStockThreshold(threshold)
+                ? productRepository.findProductsWithLowStock(threshold, lowStockMaxPageSize)
+                : productRepository.findProductsWithLowStockUnbounded(threshold, lowStockMaxPageSize))
+                .map(ReactiveProductService::convertToDto);
+    }
+
+    /**
+     * Stream every product, ordered by id
+     */
+    public Flux<ProductDto> exportProducts() {
+        return productRepository.streamAll()
+                .map(ReactiveProductService::convertToDto);
+    }
+
+    /**
+     * Run the page query and the count query concurrently and assemble a Page like the servlet stack returns
+     */
+    private Mono<Page<ProductDto>> toPage(Flux<ProductRecord> content, Mono<Long> total, Pageable pageable) {
+        return Mono.zip(content.map(ReactiveProductService::convertToDto).collectList(), total)
+                .map(tuple -> new PageImpl<>(tuple.getT1(), pageable, tuple.getT2()));
+    }
+
+    private void applyUpdate(ProductRecord product, UpdateProductDto updateProductDto) {
+        if (updateProductDto.getName() != null) {
+            product.setName(updateProductDto.getName());
+        }
+        if (updateProductDto.getDescription() != null) {
+            product.setDescription(updateProductDto.getDescription());
+        }
+        if (updateProductDto.getPrice() != null) {
+            product.setPrice(updateProductDto.getPrice());
+        }
+        if (updateProductDto.getCategory() != null) {
+            product.setCategory(updateProductDto.getCategory());
+        }
+        if (updateProductDto.getStock() != null) {
+            product.setStock(updateProductDto.getStock());
+        }
+    }
+
+    /**
+     * Convert ProductRecord to ProductDto
+     */
+    static ProductDto convertToDto(ProductRecord product) {
+        return new ProductDto(
+                product.getId(),
+                product.getName(),
+                product.getDescription(),
+                product.getPrice(),
+                product.getCategory(),
+                product.getStock(),
+                product.getCreatedAt(),
+                product.getUpdatedAt(),
+                product.getVersion()
+        );
+    }
+}
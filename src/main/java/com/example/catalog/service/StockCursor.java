@@ -0,0 +1,38 @@
+package com.example.catalog.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position of the last row of a low-stock keyset page, ordered by (stock, id).
+ * Encoded as an opaque URL-safe token, like {@link ProductCursor}.
+ */
+record StockCursor(int stock, long id) {
+
+    /**
+     * Position before the first row: stock is never negative and ids are positive.
+     */
+    static final StockCursor START = new StockCursor(-1, 0L);
+
+    static StockCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return START;
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = decoded.indexOf(':');
+            if (separator < 1) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return new StockCursor(Integer.parseInt(decoded.substring(separator + 1)), Long.parseLong(decoded.substring(0, separator)));
+        } catch (IllegalArgumentException e) {
+            // Also covers NumberFormatException and malformed Base64
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+
+    String encode() {
+        String raw = id + ":" + stock;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
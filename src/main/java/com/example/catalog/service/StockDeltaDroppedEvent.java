@@ -0,0 +1,8 @@
+package com.example.catalog.service;
+
+/**
+ * Published by {@link StockWriteBehindBuffer} when buffered stock changes, already confirmed to clients, can no
+ * longer be written because the product was deleted. Listeners can compensate (e.g. cancel the reservations).
+ */
+public record StockDeltaDroppedEvent(Long productId, int delta) {
+}
@@ -0,0 +1,449 @@
+package com.example.catalog.service;
+
+import com.example.catalog.dto.StockItemDto;
+import com.example.catalog.dto.StockLevelDto;
+import com.example.catalog.exception.InsufficientStockException;
+import com.example.catalog.exception.ProductNotFoundException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Write-behind buffer in front of the stock endpoints, enabled with catalog.stock.write-behind.enabled.
+ *
+ * Each product adjusted recently has an in-memory entry holding its available stock and the delta not yet
+ * written, packed in one AtomicLong so both change with a single compare-and-set: adjustments never block
+ * each other and never take a database row lock. Available stock is checked in memory, so it never goes
+ * negative. A single flusher thread writes the summed delta of every entry in one transaction through
+ * {@link ProductService#applyStockDeltas}, every flush-interval or as soon as max-pending adjustments are
+ * waiting, and once more on shutdown. Thousands of decrements per second on one product become one UPDATE
+ * per flush.
+ *
+ * Stock changed by other writes (e.g. PUT /api/products/{id}) is picked up at the next flush of the product.
+ * If the database can no longer cover what was reserved here, the delta is kept and retried at every flush, and
+ * the buffered stock drops below zero so no further reservation of that product is accepted until it is covered.
+ * Deltas of deleted products cannot be written: they are logged, counted and published as a
+ * {@link StockDeltaDroppedEvent}. The products cache, listings and category statistics lag the responses by up
+ * to one flush interval.
+ *
+ * Stock is only checked against this node's memory, so a single node may buffer. On PostgreSQL the buffer holds
+ * a session advisory lock on a connection of its own; the other nodes do not get it and write stock straight
+ * to the database, and a node that loses the lock (connection dropped) flushes and does the same.
+ */
+@Service
+@ConditionalOnProperty(name = "catalog.stock.write-behind.enabled", havingValue = "true")
+public class StockWriteBehindBuffer {
+
+    private static final Logger logger = LoggerFactory.getLogger(StockWriteBehindBuffer.class);
+
+    // State of an entry removed from the map; adjustments that still hold it load a new one
+    private static final long RETIRED = Long.MIN_VALUE;
+
+    // pg_try_advisory_lock key held by the node that owns the buffer
+    private static final long OWNER_LOCK_KEY = 7_353_221_004L;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${catalog.stock.write-behind.flush-interval:100ms}")
+    private Duration flushInterval;
+
+    @Value("${catalog.stock.write-behind.max-pending:1000}")
+    private int maxPending;
+
+    @Value("${catalog.stock.write-behind.idle-timeout:1m}")
+    private Duration idleTimeout;
+
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicInteger pendingAdjustments = new AtomicInteger();
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    private ScheduledExecutorService flusher;
+    private Connection ownerConnection;
+    private volatile boolean closed;
+
+    private Counter adjustments;
+    private Counter writes;
+    private Counter dropped;
+
+    @PostConstruct
+    void start() {
+        adjustments = Counter.builder("catalog.stock.write-behind.adjustments")
+                .description("Stock adjustments accepted by the write-behind buffer")
+                .register(meterRegistry);
+        writes = Counter.builder("catalog.stock.write-behind.writes")
+                .description("Coalesced stock UPDATEs written by the write-behind buffer")
+                .register(meterRegistry);
+        dropped = Counter.builder("catalog.stock.write-behind.dropped")
+                .description("Buffered stock deltas dropped because their product was deleted")
+                .register(meterRegistry);
+        Gauge.builder("catalog.stock.write-behind.products", entries, Map::size)
+                .description("Products with an entry in the write-behind buffer")
+                .register(meterRegistry);
+
+        if (!acquireOwnership()) {
+            closed = true;
+            logger.warn("Another node owns the stock write-behind buffer; stock writes on this node go straight to the database");
+            return;
+        }
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "stock-write-behind");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = flushInterval.toMillis();
+        flusher.scheduleWithFixedDelay(this::flushQuietly, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stop the flusher and write everything still buffered; later adjustments go straight to the database
+     */
+    @PreDestroy
+    void stop() throws InterruptedException {
+        if (flusher == null) {
+            return;
+        }
+        closed = true;
+        flusher.shutdown();
+        flusher.awaitTermination(10, TimeUnit.SECONDS);
+        flush();
+        releaseOwnership();
+    }
+
+    /**
+     * Same contract as {@link ProductService#adjustStock}; the returned stock is the buffered value
+     */
+    public Optional<StockLevelDto> adjustStock(Long id, int delta) {
+        if (closed) {
+            return productService.adjustStock(id, delta);
+        }
+        Optional<Integer> stock = apply(id, delta);
+        stock.ifPresent(applied -> accepted(1));
+        return stock.map(applied -> new StockLevelDto(id, applied));
+    }
+
+    /**
+     * Same contract as {@link ProductService#reserveStock}: either every item is reserved or none is
+     */
+    public List<StockLevelDto> reserveStock(List<StockItemDto> items) {
+        return closed ? productService.reserveStock(items) : applyItems(items, -1);
+    }
+
+    /**
+     * Same contract as {@link ProductService#releaseStock}
+     */
+    public List<StockLevelDto> releaseStock(List<StockItemDto> items) {
+        return closed ? productService.releaseStock(items) : applyItems(items, 1);
+    }
+
+    /**
+     * Write the buffered deltas now. Called by the flusher thread, on shutdown and by tests.
+     */
+    public synchronized void flush() {
+        if (!closed && !ownershipHeld()) {
+            // Another node may take over: stop accepting adjustments, then write what was already confirmed
+            closed = true;
+            logger.error("Lost the stock write-behind ownership lock; stock writes on this node now go straight to the database");
+        }
+        flushRequested.set(false);
+        pendingAdjustments.set(0);
+
+        Map<Long, Integer> deltas = new TreeMap<>();
+        long idleBefore = System.nanoTime() - idleTimeout.toNanos();
+        entries.forEach((id, entry) -> {
+            int delta = entry.takePending();
+            if (delta != 0) {
+                deltas.put(id, delta);
+            } else if (entry.lastUsed - idleBefore < 0 && entry.retireIfIdle()) {
+                entries.remove(id, entry);
+            }
+        });
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        Map<Long, Integer> stocks;
+        try {
+            stocks = productService.applyStockDeltas(deltas);
+        } catch (RuntimeException e) {
+            // Nothing was written: keep the deltas for the next flush
+            deltas.forEach((id, delta) -> entries.get(id).restorePending(delta));
+            throw e;
+        }
+        writes.increment(stocks.size());
+
+        deltas.forEach((id, delta) -> {
+            Entry entry = entries.get(id);
+            Integer stock = stocks.get(id);
+            if (stock != null) {
+                entry.written(delta, stock);
+                return;
+            }
+            Optional<Integer> current = productService.getStock(id);
+            if (current.isPresent()) {
+                // Stock lowered elsewhere below what was reserved here: keep the delta and block reservations
+                if (entry.shortOf(delta, current.get())) {
+                    logger.warn("Product {} has {} units, short of the buffered delta {}; retrying at every flush", id, current.get(), delta);
+                }
+                return;
+            }
+            logger.error("Dropping buffered stock delta {} of product {}: the product was deleted", delta, id);
+            entry.retire();
+            entries.remove(id, entry);
+            dropped.increment();
+            eventPublisher.publishEvent(new StockDeltaDroppedEvent(id, delta));
+        });
+    }
+
+    /**
+     * Take the owner lock on PostgreSQL; other databases (H2 in tests) are assumed to serve a single node
+     */
+    private boolean acquireOwnership() {
+        if (dataSource == null) {
+            return true;
+        }
+        try {
+            Connection connection = dataSource.getConnection();
+            if (!"PostgreSQL".equals(connection.getMetaData().getDatabaseProductName())) {
+                connection.close();
+                return true;
+            }
+            try (PreparedStatement statement = connection.prepareStatement("SELECT pg_try_advisory_lock(?)")) {
+                statement.setLong(1, OWNER_LOCK_KEY);
+                try (ResultSet result = statement.executeQuery()) {
+                    if (result.next() && result.getBoolean(1)) {
+                        ownerConnection = connection;
+                        return true;
+                    }
+                }
+            }
+            connection.close();
+            return false;
+        } catch (SQLException e) {
+            logger.warn("Could not take the stock write-behind ownership lock", e);
+            return false;
+        }
+    }
+
+    private boolean ownershipHeld() {
+        try {
+            return ownerConnection == null || ownerConnection.isValid(2);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private void releaseOwnership() {
+        if (ownerConnection == null) {
+            return;
+        }
+        try {
+            // Closing the session releases the advisory lock
+            ownerConnection.close();
+        } catch (SQLException e) {
+            logger.warn("Closing the stock write-behind ownership connection failed", e);
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            logger.error("Stock write-behind flush failed, retrying at the next interval", e);
+        }
+    }
+
+    private List<StockLevelDto> applyItems(List<StockItemDto> items, int sign) {
+        Map<Long, Integer> quantities = productService.mergeStockItems(items);
+        // Resolve every product first, so a missing one fails the batch before anything is applied
+        for (Long id : quantities.keySet()) {
+            if (entry(id) == null) {
+                throw new ProductNotFoundException(id);
+            }
+        }
+
+        List<StockLevelDto> levels = new ArrayList<>(quantities.size());
+        try {
+            for (Map.Entry<Long, Integer> quantity : quantities.entrySet()) {
+                Long id = quantity.getKey();
+                int stock = apply(id, sign * quantity.getValue()).orElseThrow(() -> new ProductNotFoundException(id));
+                levels.add(new StockLevelDto(id, stock));
+            }
+        } catch (RuntimeException e) {
+            // Give back what this batch already took; only reservations can fail halfway
+            for (int i = 0; i < levels.size(); i++) {
+                Long id = levels.get(i).getId();
+                apply(id, -sign * quantities.get(id));
+            }
+            throw e;
+        }
+        accepted(levels.size());
+        return levels;
+    }
+
+    /**
+     * Apply a delta to the buffered stock of a product; empty when the product does not exist
+     */
+    private Optional<Integer> apply(Long id, int delta) {
+        while (true) {
+            Entry entry = entry(id);
+            if (entry == null) {
+                return Optional.empty();
+            }
+            long state = entry.state.get();
+            if (state == RETIRED) {
+                entries.remove(id, entry);
+                continue;
+            }
+            int available = available(state);
+            int stock = Math.addExact(available, delta);
+            // A product short of its buffered reservations (see Entry#shortOf) still takes releases
+            if (stock < 0 && delta < 0) {
+                throw new InsufficientStockException(id, available, -delta);
+            }
+            if (entry.state.compareAndSet(state, pack(stock, Math.addExact(pending(state), delta)))) {
+                entry.lastUsed = System.nanoTime();
+                return Optional.of(stock);
+            }
+        }
+    }
+
+    private Entry entry(Long id) {
+        Entry entry = entries.get(id);
+        if (entry != null) {
+            return entry;
+        }
+        // Loaded outside computeIfAbsent so the read does not block the map; the first entry stored wins
+        Optional<Integer> stock = productService.getStock(id);
+        return stock.map(loaded -> entries.computeIfAbsent(id, key -> new Entry(loaded))).orElse(null);
+    }
+
+    private void accepted(int count) {
+        adjustments.increment(count);
+        if (closed) {
+            // Raced with shutdown after its final flush
+            flush();
+        } else if (pendingAdjustments.addAndGet(count) >= maxPending && flushRequested.compareAndSet(false, true)) {
+            try {
+                flusher.execute(this::flushQuietly);
+            } catch (RejectedExecutionException e) {
+                flushRequested.set(false);
+            }
+        }
+    }
+
+    private static long pack(int available, int pending) {
+        return ((long) available << 32) | (pending & 0xFFFFFFFFL);
+    }
+
+    private static int available(long state) {
+        return (int) (state >> 32);
+    }
+
+    private static int pending(long state) {
+        return (int) state;
+    }
+
+    /**
+     * Buffered state of one product: available stock (written stock plus pending delta) and the pending
+     * delta, packed as two ints. writtenStock is only touched by the flusher.
+     */
+    private static class Entry {
+
+        private final AtomicLong state;
+        private int writtenStock;
+        private boolean shortfall;
+        private volatile long lastUsed = System.nanoTime();
+
+        Entry(int stock) {
+            this.state = new AtomicLong(pack(stock, 0));
+            this.writtenStock = stock;
+        }
+
+        int takePending() {
+            while (true) {
+                long current = state.get();
+                if (current == RETIRED || pending(current) == 0) {
+                    return 0;
+                }
+                if (state.compareAndSet(current, pack(available(current), 0))) {
+                    return pending(current);
+                }
+            }
+        }
+
+        void restorePending(int delta) {
+            state.getAndUpdate(current -> pack(available(current), pending(current) + delta));
+        }
+
+        /**
+         * Keep a delta the database rejected, with the available stock recomputed from the database; returns
+         * true the first time in a row the product falls short
+         */
+        boolean shortOf(int delta, int stock) {
+            writtenStock = stock;
+            state.getAndUpdate(current -> pack(stock + pending(current) + delta, pending(current) + delta));
+            boolean first = !shortfall;
+            shortfall = true;
+            return first;
+        }
+
+        /**
+         * Record a written delta; the difference from the expected stock is what other writers changed
+         */
+        void written(int delta, int stock) {
+            shortfall = false;
+            int drift = stock - (writtenStock + delta);
+            writtenStock = stock;
+            if (drift != 0) {
+                state.getAndUpdate(current -> pack(available(current) + drift, pending(current)));
+            }
+        }
+
+        boolean retireIfIdle() {
+            long current = state.get();
+            return pending(current) == 0 && state.compareAndSet(current, RETIRED);
+        }
+
+        void retire() {
+            state.set(RETIRED);
+        }
+    }
+}
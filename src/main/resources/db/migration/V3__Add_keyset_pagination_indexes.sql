@@ -0,0 +1,6 @@
+-- Composite indexes backing keyset (cursor) pagination ordered by (name, id)
+CREATE INDEX idx_products_name_id ON products(name, id);
+CREATE INDEX idx_products_lower_category_name_id ON products(LOWER(category), name, id);
+
+-- idx_products_name is a prefix of idx_products_name_id
+DROP INDEX idx_products_name;
@@ -0,0 +1,15 @@
+-- Full-text search: weighted tsvector over name (A) and description (B)
+-- 'simple' configuration because the catalog mixes Portuguese and English text
+ALTER TABLE products ADD COLUMN search_vector tsvector
+    GENERATED ALWAYS AS (
+        setweight(to_tsvector('simple', coalesce(name, '')), 'A') ||
+        setweight(to_tsvector('simple', coalesce(description, '')), 'B')
+    ) STORED;
+
+CREATE INDEX idx_products_search_vector ON products USING GIN (search_vector);
+
+-- Trigram indexes serve LOWER(column) LIKE '%term%' substring matches
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX idx_products_name_trgm ON products USING GIN (LOWER(name) gin_trgm_ops);
+CREATE INDEX idx_products_description_trgm ON products USING GIN (LOWER(description) gin_trgm_ops);
@@ -0,0 +1,4 @@
+-- Let Hibernate reserve ids in blocks of 50 (pooled optimizer, allocationSize = 50)
+-- so inserts no longer need IDENTITY and can be sent as JDBC batches.
+-- The column default (nextval) keeps working for plain SQL inserts.
+ALTER SEQUENCE products_id_seq INCREMENT BY 50;
@@ -0,0 +1,34 @@
+-- Per-category summary maintained by the application on every product write,
+-- so category listings and statistics no longer scan the products table.
+-- Categories are grouped case-insensitively (category_key = LOWER(category)).
+-- CategoryStatsService applies each write as a delta, so the table keeps the sum of the prices,
+-- from which the average is derived on read, instead of an average that cannot be adjusted by one product.
+CREATE TABLE category_stats (
+    category_key VARCHAR(50) PRIMARY KEY,
+    category VARCHAR(50) NOT NULL,
+    product_count BIGINT NOT NULL DEFAULT 0,
+    total_stock BIGINT NOT NULL DEFAULT 0,
+    min_price DECIMAL(12,2),
+    max_price DECIMAL(12,2),
+    price_sum DECIMAL(19,2) NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+INSERT INTO category_stats (category_key, category, product_count, total_stock, min_price, max_price, price_sum, updated_at)
+SELECT LOWER(category), MIN(category), COUNT(*), SUM(stock), MIN(price), MAX(price), COALESCE(SUM(price), 0), CURRENT_TIMESTAMP
+FROM products
+WHERE category IS NOT NULL
+GROUP BY LOWER(category);
+
+-- Journal of stock changes made by the stock adjust/reserve/release endpoints. Each transaction inserts one row
+-- per category instead of updating the hot category_stats row; CategoryStatsService folds the rows into
+-- category_stats.total_stock in the background.
+CREATE TABLE category_stock_deltas (
+    id BIGSERIAL PRIMARY KEY,
+    category_key VARCHAR(50) NOT NULL,
+    stock_delta BIGINT NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+-- The category_stats repair subtracts the rows of the categories it recomputes
+CREATE INDEX idx_category_stock_deltas_category_key ON category_stock_deltas (category_key);
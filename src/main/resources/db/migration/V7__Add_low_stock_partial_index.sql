@@ -0,0 +1,5 @@
+-- Low-stock listing: for thresholds up to 100, ProductRepository.findLowStockAfter and streamLowStock (and
+-- ReactiveProductRepository.findProductsWithLowStock) filter stock <= :threshold AND stock <= 100 and order by
+-- (stock, id). The partial index only holds the few low-stock rows and returns them in order.
+-- Larger thresholds use the *Unbounded variants, served by idx_products_stock (V1).
+CREATE INDEX idx_products_low_stock ON products(stock, id) WHERE stock <= 100;
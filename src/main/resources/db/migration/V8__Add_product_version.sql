@@ -0,0 +1,14 @@
+-- Optimistic locking: every UPDATE of a product increments version (JPA @Version and the stock endpoints),
+-- and writers send the version they read (If-Match) instead of locking the row
+ALTER TABLE products ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+
+-- Only touch updated_at when a product column actually changes, so a no-op UPDATE keeps Last-Modified.
+-- The columns are listed because a whole-row comparison cannot include the generated search_vector (V4).
+DROP TRIGGER update_products_updated_at ON products;
+
+CREATE TRIGGER update_products_updated_at
+    BEFORE UPDATE ON products
+    FOR EACH ROW
+    WHEN ((OLD.name, OLD.description, OLD.price, OLD.category, OLD.stock)
+          IS DISTINCT FROM (NEW.name, NEW.description, NEW.price, NEW.category, NEW.stock))
+    EXECUTE FUNCTION update_updated_at_column();
@@ -0,0 +1,64 @@
+-- Publish product writes on the product_changes channel, so each API node can evict its local caches
+-- (ProductChangeListener). Notifications are delivered on commit only; identical ones in a transaction are merged.
+-- One notification per statement and 100 rows: {"op": "UPDATE", "changes": [[id, version], ...]}, since NOTIFY
+-- serializes committing transactions and a row-level trigger would queue one per row of bulk writes and imports.
+-- Updates that change only stock (adjust, reserve, release, write-behind flushes) are not published: stock is
+-- the hottest write, and cached copies on other nodes keep their stock until the cache entry expires.
+-- version is null for deletes, and for updates that kept the version (writes outside the application),
+-- which listeners evict unconditionally.
+CREATE OR REPLACE FUNCTION notify_product_changes()
+RETURNS TRIGGER AS $$
+DECLARE
+    payload text;
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        FOR payload IN
+            SELECT json_build_object('op', TG_OP, 'changes', json_agg(json_build_array(id, version)))::text
+            FROM (SELECT id, version, (row_number() OVER (ORDER BY id) - 1) / 100 AS chunk FROM new_rows) changed
+            GROUP BY chunk
+        LOOP
+            PERFORM pg_notify('product_changes', payload);
+        END LOOP;
+    ELSIF TG_OP = 'UPDATE' THEN
+        FOR payload IN
+            SELECT json_build_object('op', TG_OP, 'changes', json_agg(json_build_array(id, version)))::text
+            FROM (SELECT n.id, CASE WHEN o.version = n.version THEN NULL ELSE n.version END AS version,
+                         (row_number() OVER (ORDER BY n.id) - 1) / 100 AS chunk
+                  FROM new_rows n JOIN old_rows o ON o.id = n.id
+                  WHERE (n.name, n.description, n.price, n.category)
+                        IS DISTINCT FROM (o.name, o.description, o.price, o.category)) changed
+            GROUP BY chunk
+        LOOP
+            PERFORM pg_notify('product_changes', payload);
+        END LOOP;
+    ELSE
+        FOR payload IN
+            SELECT json_build_object('op', TG_OP, 'changes', json_agg(json_build_array(id, NULL)))::text
+            FROM (SELECT id, (row_number() OVER (ORDER BY id) - 1) / 100 AS chunk FROM old_rows) changed
+            GROUP BY chunk
+        LOOP
+            PERFORM pg_notify('product_changes', payload);
+        END LOOP;
+    END IF;
+    RETURN NULL;
+END;
+$$ language 'plpgsql';
+
+-- Transition tables allow a single event per trigger
+CREATE TRIGGER notify_product_inserts
+    AFTER INSERT ON products
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT
+    EXECUTE FUNCTION notify_product_changes();
+
+CREATE TRIGGER notify_product_updates
+    AFTER UPDATE ON products
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows
+    FOR EACH STATEMENT
+    EXECUTE FUNCTION notify_product_changes();
+
+CREATE TRIGGER notify_product_deletes
+    AFTER DELETE ON products
+    REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT
+    EXECUTE FUNCTION notify_product_changes();
@@ -1,23 +1,48 @@
 package com.example.catalog;
 
 import com.example.catalog.dto.CreateProductDto;
+import com.example.catalog.dto.ProductDto;
+import com.example.catalog.config.SqlDiagnostics;
+import com.example.catalog.dto.StockItemDto;
 import com.example.catalog.entity.Product;
+import com.example.catalog.exception.InsufficientStockException;
 import com.example.catalog.repository.ProductRepository;
+import com.example.catalog.service.ProductExportService;
+import com.example.catalog.service.ProductFileFormat;
+import com.example.catalog.service.ProductService;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import jakarta.persistence.EntityManager;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureWebMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.context.WebApplicationContext;
 
+import java.io.ByteArrayOutputStream;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -36,6 +61,21 @@ public class ProductControllerTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ProductExportService productExportService;
+
+    @Autowired
+    private SqlDiagnostics sqlDiagnostics;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private ProductService productService;
+
     private MockMvc mockMvc;
 
     @BeforeEach
@@ -91,7 +131,8 @@ public class ProductControllerTest {
                 .content(objectMapper.writeValueAsString(createProductDto)))
                 .andExpect(status().isCreated())
                 .andExpect(jsonPath("$.name").value("New Product"))
-                .andExpect(jsonPath("$.price").value(149.99));
+                .andExpect(jsonPath("$.price").value(149.99))
+                .andExpect(jsonPath("$.createdAt").isNotEmpty());
     }
 
     @Test
@@ -121,6 +162,74 @@ public class ProductControllerTest {
                 .andExpect(jsonPath("$.price").value(199.99));
     }
 
+    @Test
+    void testGetProductByIdIsCachedAndInvalidatedOnWrite() throws Exception {
+        // Create test product
+        Product product = new Product();
+        product.setName("Cached Product");
+        product.setDescription("Cached Description");
+        product.setPrice(new BigDecimal("10.00"));
+        product.setCategory("Cache");
+        product.setStock(3);
+        Product savedProduct = productRepository.save(product);
+
+        double hitsBefore = cacheGets("hit");
+
+        mockMvc.perform(get("/api/products/" + savedProduct.getId()))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/products/" + savedProduct.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Cached Product"));
+
+        assertEquals(hitsBefore + 1, cacheGets("hit"));
+
+        mockMvc.perform(put("/api/products/" + savedProduct.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\": \"Renamed Product\"}"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/products/" + savedProduct.getId()))
+                .andExpect(jsonPath("$.name").value("Renamed Product"));
+
+        mockMvc.perform(delete("/api/products/" + savedProduct.getId()))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(get("/api/products/" + savedProduct.getId()))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void testProductChangedOnAnotherNodeIsEvicted() throws Exception {
+        Product product = new Product("Shared Product", "Cached on every node", new BigDecimal("10.00"), "Cache", 3);
+        Long id = productRepository.saveAndFlush(product).getId();
+
+        mockMvc.perform(get("/api/products/" + id))
+                .andExpect(jsonPath("$.version").value(0));
+        // This node's own change: the cached copy is already at that version
+        assertFalse(productService.onProductChanged(id, false, 0L));
+
+        // Another node renames the product
+        entityManager.createNativeQuery("UPDATE products SET name = 'Renamed Elsewhere', version = version + 1 WHERE id = ?1")
+                .setParameter(1, id)
+                .executeUpdate();
+        mockMvc.perform(get("/api/products/" + id))
+                .andExpect(jsonPath("$.name").value("Shared Product"));
+
+        assertTrue(productService.onProductChanged(id, false, 1L));
+        mockMvc.perform(get("/api/products/" + id))
+                .andExpect(jsonPath("$.name").value("Renamed Elsewhere"))
+                .andExpect(jsonPath("$.version").value(1));
+
+        assertTrue(productService.onProductChanged(id, true, null));
+        assertFalse(productService.onProductChanged(id, true, null));
+    }
+
+    private double cacheGets(String result) {
+        return meterRegistry.get("cache.gets")
+                .tag("cache", "products")
+                .tag("result", result)
+                .functionCounter()
+                .count();
+    }
+
     @Test
     void testDeleteProduct() throws Exception {
         // Create test product
@@ -212,6 +321,560 @@ public class ProductControllerTest {
                 .andExpect(jsonPath("$[1]").value("Electronics"));
     }
 
+    @Test
+    void testGetProductsWithSelectedFields() throws Exception {
+        // Create test product
+        Product product = new Product();
+        product.setName("Fields Product");
+        product.setDescription("Not requested");
+        product.setPrice(new BigDecimal("19.90"));
+        product.setCategory("Fields");
+        product.setStock(3);
+        productRepository.save(product);
+
+        mockMvc.perform(get("/api/products").param("fields", "id,name,price"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andExpect(jsonPath("$.content[0].name").value("Fields Product"))
+                .andExpect(jsonPath("$.content[0].price").value(19.90))
+                .andExpect(jsonPath("$.content[0].id").exists())
+                .andExpect(jsonPath("$.content[0].description").doesNotExist())
+                .andExpect(jsonPath("$.totalElements").value(1));
+
+        mockMvc.perform(get("/api/products/category/fields").param("fields", "name,stock"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].stock").value(3))
+                .andExpect(jsonPath("$.content[0].id").doesNotExist())
+                .andExpect(jsonPath("$.content[0].category").doesNotExist());
+
+        mockMvc.perform(get("/api/products/category/fields").param("fields", "name").param("envelope", "compact"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].name").value("Fields Product"))
+                .andExpect(jsonPath("$.page").value(0))
+                .andExpect(jsonPath("$.totalElements").value(1))
+                .andExpect(jsonPath("$.totalPages").value(1))
+                .andExpect(jsonPath("$.pageable").doesNotExist())
+                .andExpect(jsonPath("$.sort").doesNotExist());
+
+        mockMvc.perform(get("/api/products/category/fields").param("cursor", "").param("fields", "name"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].name").value("Fields Product"))
+                .andExpect(jsonPath("$.content[0].price").doesNotExist());
+
+        mockMvc.perform(get("/api/products").param("fields", "name,secret"))
+                .andExpect(status().isBadRequest());
+
+        mockMvc.perform(get("/api/products").param("envelope", "tiny"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testGetProductsAsSmileAndCbor() throws Exception {
+        // Create test product
+        Product product = new Product();
+        product.setName("Binary Product");
+        product.setDescription("Binary Description");
+        product.setPrice(new BigDecimal("12.34"));
+        product.setCategory("Binary");
+        product.setStock(7);
+        productRepository.save(product);
+
+        mockMvc.perform(get("/api/products/category/binary"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
+
+        byte[] smile = mockMvc.perform(get("/api/products/category/binary").param("fields", "name,price")
+                        .accept("application/x-jackson-smile"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-jackson-smile"))
+                .andReturn().getResponse().getContentAsByteArray();
+        JsonNode smilePage = new ObjectMapper(new SmileFactory()).readTree(smile);
+        assertEquals("Binary Product", smilePage.at("/content/0/name").asText());
+        assertEquals(new BigDecimal("12.34"), smilePage.at("/content/0/price").decimalValue());
+        assertTrue(smilePage.at("/content/0/stock").isMissingNode());
+
+        byte[] cbor = mockMvc.perform(get("/api/products/category/binary").accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+        JsonNode cborPage = new ObjectMapper(new CBORFactory()).readTree(cbor);
+        assertEquals("Binary Product", cborPage.at("/content/0/name").asText());
+        assertEquals(7, cborPage.at("/content/0/stock").asInt());
+    }
+
+    @Test
+    void testGetAllProductsWithCursor() throws Exception {
+        // Create test products
+        for (String name : new String[]{"Cursor C", "Cursor A", "Cursor B"}) {
+            Product product = new Product();
+            product.setName(name);
+            product.setDescription("Cursor Description");
+            product.setPrice(new BigDecimal("9.99"));
+            product.setCategory("Cursor");
+            product.setStock(1);
+            productRepository.save(product);
+        }
+
+        String firstPage = mockMvc.perform(get("/api/products/category/Cursor?cursor=&size=2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(2))
+                .andExpect(jsonPath("$.content[0].name").value("Cursor A"))
+                .andExpect(jsonPath("$.content[1].name").value("Cursor B"))
+                .andExpect(jsonPath("$.hasNext").value(true))
+                .andExpect(jsonPath("$.totalElements").doesNotExist())
+                .andReturn().getResponse().getContentAsString();
+
+        String nextCursor = objectMapper.readTree(firstPage).get("nextCursor").asText();
+
+        mockMvc.perform(get("/api/products/category/Cursor").param("cursor", nextCursor).param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(1))
+                .andExpect(jsonPath("$.content[0].name").value("Cursor C"))
+                .andExpect(jsonPath("$.hasNext").value(false));
+
+        mockMvc.perform(get("/api/products/search").param("q", "cursor").param("cursor", nextCursor))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].name").value("Cursor C"));
+
+        mockMvc.perform(get("/api/products?cursor=not-a-cursor"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testAdjustStock() throws Exception {
+        Product product = new Product("Stocked", null, new BigDecimal("5.00"), "Stock", 10);
+        Long id = productRepository.save(product).getId();
+
+        // Cache the product, so the adjustment has to evict it
+        mockMvc.perform(get("/api/products/" + id))
+                .andExpect(jsonPath("$.stock").value(10));
+
+        mockMvc.perform(post("/api/products/" + id + "/stock/adjust")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"delta\": -3}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(id))
+                .andExpect(jsonPath("$.stock").value(7));
+        mockMvc.perform(post("/api/products/" + id + "/stock/adjust")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"delta\": 5}"))
+                .andExpect(jsonPath("$.stock").value(12));
+
+        mockMvc.perform(post("/api/products/" + id + "/stock/adjust")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"delta\": -13}"))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.available").value(12))
+                .andExpect(jsonPath("$.requested").value(13));
+        mockMvc.perform(post("/api/products/-1/stock/adjust")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"delta\": 1}"))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(post("/api/products/" + id + "/stock/adjust")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{}"))
+                .andExpect(status().isBadRequest());
+
+        mockMvc.perform(get("/api/products/" + id))
+                .andExpect(jsonPath("$.stock").value(12));
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void testReserveStockIsAllOrNothing() throws Exception {
+        // Runs outside the test transaction so a failed batch really rolls back; cleaned up at the end
+        Long first = productRepository.save(new Product("Reserved A", null, new BigDecimal("1.00"), "Reserve", 5)).getId();
+        Long second = productRepository.save(new Product("Reserved B", null, new BigDecimal("1.00"), "Reserve", 1)).getId();
+        Long contended = productRepository.save(new Product("Reserved C", null, new BigDecimal("1.00"), "Reserve", 100)).getId();
+        try {
+            mockMvc.perform(post("/api/products/stock/reserve")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(List.of(new StockItemDto(first, 2), new StockItemDto(second, 2)))))
+                    .andExpect(status().isConflict())
+                    .andExpect(jsonPath("$.productId").value(second));
+            assertEquals(5, productRepository.findStockById(first).orElseThrow());
+
+            mockMvc.perform(post("/api/products/stock/reserve")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(List.of(new StockItemDto(second, 1), new StockItemDto(first, 2), new StockItemDto(first, 1)))))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$[0].id").value(first))
+                    .andExpect(jsonPath("$[0].stock").value(2))
+                    .andExpect(jsonPath("$[1].stock").value(0));
+            mockMvc.perform(post("/api/products/stock/release")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(List.of(new StockItemDto(second, 3)))))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$[0].stock").value(3));
+            mockMvc.perform(post("/api/products/stock/reserve")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(List.of(new StockItemDto(first, 1), new StockItemDto(-1L, 1)))))
+                    .andExpect(status().isNotFound());
+            mockMvc.perform(post("/api/products/stock/reserve")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(List.of(new StockItemDto(first, 0)))))
+                    .andExpect(status().isBadRequest());
+            assertEquals(2, productRepository.findStockById(first).orElseThrow());
+
+            // 200 concurrent single-unit reservations against 100 units: exactly 100 succeed
+            ExecutorService executor = Executors.newFixedThreadPool(8);
+            List<Future<Boolean>> reservations = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                reservations.add(executor.submit(() -> {
+                    try {
+                        productService.reserveStock(List.of(new StockItemDto(contended, 1)));
+                        return true;
+                    } catch (InsufficientStockException e) {
+                        return false;
+                    }
+                }));
+            }
+            int reserved = 0;
+            for (Future<Boolean> reservation : reservations) {
+                reserved += reservation.get() ? 1 : 0;
+            }
+            executor.shutdown();
+            assertEquals(100, reserved);
+            assertEquals(0, productRepository.findStockById(contended).orElseThrow());
+        } finally {
+            productRepository.deleteAllById(List.of(first, second, contended));
+        }
+    }
+
+    @Test
+    void testBulkCreateUpdateAndDelete() throws Exception {
+        String createJson = """
+                [
+                    {"name": "Bulk A", "price": 10.00, "category": "Bulk", "stock": 1},
+                    {"name": "", "price": -1, "category": "Bulk", "stock": 1},
+                    {"name": "Bulk B", "price": 20.00, "category": "Bulk", "stock": 2}
+                ]
+                """;
+
+        String created = mockMvc.perform(post("/api/products/bulk")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(createJson))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.succeeded").value(2))
+                .andExpect(jsonPath("$.failed").value(1))
+                .andExpect(jsonPath("$.items[1].status").value("failed"))
+                .andExpect(jsonPath("$.items[1].errors.name").exists())
+                .andExpect(jsonPath("$.items[1].errors.price").exists())
+                .andReturn().getResponse().getContentAsString();
+
+        long firstId = objectMapper.readTree(created).at("/items/0/id").asLong();
+        long secondId = objectMapper.readTree(created).at("/items/2/id").asLong();
+
+        mockMvc.perform(put("/api/products/bulk")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[{\"id\": " + firstId + ", \"stock\": 7}, {\"id\": -1, \"stock\": 1}]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.succeeded").value(1))
+                .andExpect(jsonPath("$.items[1].errors.id").value("Product not found"));
+
+        mockMvc.perform(get("/api/products/" + firstId))
+                .andExpect(jsonPath("$.stock").value(7));
+
+        mockMvc.perform(put("/api/products/bulk")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[null, {\"id\": " + firstId + ", \"stock\": 8}]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.succeeded").value(1))
+                .andExpect(jsonPath("$.items[0].status").value("failed"))
+                .andExpect(jsonPath("$.items[0].errors.item").exists())
+                .andExpect(jsonPath("$.items[1].status").value("updated"));
+
+        mockMvc.perform(delete("/api/products/bulk")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[" + firstId + ", " + secondId + ", -1]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.succeeded").value(2))
+                .andExpect(jsonPath("$.items[2].status").value("failed"));
+
+        mockMvc.perform(get("/api/products/" + secondId))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void testGetProductsWithLowStockPaginatedAndStreamed() throws Exception {
+        // Create test products, out of (stock, id) order
+        for (int stock : new int[]{3, 0, 7, 3}) {
+            Product product = new Product();
+            product.setName("Low Stock " + stock);
+            product.setPrice(new BigDecimal("5.00"));
+            product.setCategory("LowStock");
+            product.setStock(stock);
+            productRepository.save(product);
+        }
+
+        mockMvc.perform(get("/api/products/low-stock").param("threshold", "5"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("X-Next-Cursor"))
+                .andExpect(jsonPath("$.length()").value(3))
+                .andExpect(jsonPath("$[0].stock").value(0))
+                .andExpect(jsonPath("$[2].stock").value(3));
+
+        String firstPage = mockMvc.perform(get("/api/products/low-stock")
+                        .param("threshold", "5").param("cursor", "").param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(2))
+                .andExpect(jsonPath("$.content[0].stock").value(0))
+                .andExpect(jsonPath("$.hasNext").value(true))
+                .andReturn().getResponse().getContentAsString();
+        String cursor = objectMapper.readTree(firstPage).get("nextCursor").asText();
+
+        mockMvc.perform(get("/api/products/low-stock")
+                        .param("threshold", "5").param("cursor", cursor).param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(1))
+                .andExpect(jsonPath("$.content[0].stock").value(3))
+                .andExpect(jsonPath("$.hasNext").value(false));
+
+        // Server-side cap on the page size; thresholds above the partial index range still work
+        mockMvc.perform(get("/api/products/low-stock").param("cursor", "").param("size", "1001"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/products/low-stock").param("threshold", "-1"))
+                .andExpect(status().isBadRequest());
+        productRepository.save(new Product("Wide Stock", null, new BigDecimal("5.00"), "LowStock", 120));
+        mockMvc.perform(get("/api/products/low-stock").param("threshold", "150"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[?(@.stock == 120)].name").value("Wide Stock"));
+
+        ByteArrayOutputStream ndjson = new ByteArrayOutputStream();
+        long rows = productExportService.exportProductsWithLowStock(5, ProductFileFormat.NDJSON, ndjson);
+        String[] lines = ndjson.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(3, rows);
+        assertEquals(0, objectMapper.readTree(lines[0]).get("stock").asInt());
+
+        MvcResult result = mockMvc.perform(get("/api/products/low-stock").param("format", "ndjson"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"));
+    }
+
+    @Test
+    void testExportProducts() throws Exception {
+        // Create test product
+        Product product = new Product();
+        product.setName("Export, \"Quoted\"");
+        product.setDescription("Export Description");
+        product.setPrice(new BigDecimal("12.50"));
+        product.setCategory("Export");
+        product.setStock(4);
+        productRepository.save(product);
+
+        ByteArrayOutputStream ndjson = new ByteArrayOutputStream();
+        long rows = productExportService.exportProducts(ProductFileFormat.NDJSON, ndjson);
+        String[] lines = ndjson.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(rows, lines.length);
+        assertEquals("Export Description", objectMapper.readTree(lines[lines.length - 1]).get("description").asText());
+
+        ByteArrayOutputStream csv = new ByteArrayOutputStream();
+        productExportService.exportProducts(ProductFileFormat.CSV, csv);
+        String csvContent = csv.toString(StandardCharsets.UTF_8);
+        assertTrue(csvContent.startsWith("id,name,description,price,category,stock,createdAt,updatedAt\n"));
+        assertTrue(csvContent.contains(",\"Export, \"\"Quoted\"\"\",Export Description,12.50,Export,4,"));
+
+        MvcResult result = mockMvc.perform(get("/api/products/export?format=csv"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("text/csv"))
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"products.csv\""));
+
+        mockMvc.perform(get("/api/products/export?format=xml"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testImportProducts() throws Exception {
+        String ndjson = "{\"name\":\"Imported 1\",\"price\":10.00,\"category\":\"Import\",\"stock\":3}\n"
+                + "{\"name\":\"Imported 2\",\"price\":\n"
+                + "\n"
+                + "{\"name\":\"\",\"price\":5.00,\"stock\":1}\n"
+                + "{\"name\":\"Imported 3\",\"price\":7.50,\"category\":\"Import\",\"stock\":2}\n";
+
+        mockMvc.perform(post("/api/products/import")
+                .contentType("application/x-ndjson")
+                .content(ndjson))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.linesRead").value(5))
+                .andExpect(jsonPath("$.imported").value(2))
+                .andExpect(jsonPath("$.failed").value(2))
+                .andExpect(jsonPath("$.errors[0].line").value(2))
+                .andExpect(jsonPath("$.errors[1].line").value(4))
+                .andExpect(jsonPath("$.errors[1].message").value("name: Product name is required"));
+
+        String csv = "name,description,price,category,stock\n"
+                + "CSV Product,\"Line one\nline two, \"\"quoted\"\"\",19.90,Import,8\n"
+                + "Bad Price,,abc,Import,1\n";
+
+        mockMvc.perform(post("/api/products/import?format=csv")
+                .contentType("text/csv")
+                .content(csv))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.linesRead").value(4))
+                .andExpect(jsonPath("$.imported").value(1))
+                .andExpect(jsonPath("$.errors[0].line").value(4));
+
+        // A stray quote stops the import with a row error; the rows before it are kept
+        String unterminated = "name,description,price,category,stock\n"
+                + "Before Quote,,3.00,Import,1\n"
+                + "Stray Quote,\"never closed,4.00,Import,1\n"
+                + "After Quote,,5.00,Import,1\n";
+
+        mockMvc.perform(post("/api/products/import?format=csv")
+                .contentType("text/csv")
+                .content(unterminated))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.linesRead").value(4))
+                .andExpect(jsonPath("$.imported").value(1))
+                .andExpect(jsonPath("$.failed").value(1))
+                .andExpect(jsonPath("$.errors[0].line").value(3));
+
+        mockMvc.perform(post("/api/products/import?format=csv")
+                .contentType("text/csv")
+                .content("name,description,price\nToo Long,\"" + "x".repeat(70000) + "\",1.00\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(0))
+                .andExpect(jsonPath("$.errors[0].line").value(2));
+
+        assertEquals(4, productRepository.countByCategoryIgnoreCase("Import"));
+        Product imported = productRepository.findByNameContainingIgnoreCase("CSV Product", Pageable.unpaged()).getContent().get(0);
+        assertEquals("Line one\nline two, \"quoted\"", imported.getDescription());
+    }
+
+    @Test
+    void testConditionalGet() throws Exception {
+        // Create test product
+        Product product = new Product();
+        product.setName("Conditional Product");
+        product.setDescription("Conditional Description");
+        product.setPrice(new BigDecimal("10.00"));
+        product.setCategory("Conditional");
+        product.setStock(5);
+        Product savedProduct = productRepository.saveAndFlush(product);
+
+        MvcResult first = mockMvc.perform(get("/api/products/" + savedProduct.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("Last-Modified"))
+                .andReturn();
+        String eTag = first.getResponse().getHeader("ETag");
+        assertTrue(eTag.startsWith("\"") && !eTag.startsWith("W/"));
+        // Validators describe the same read as the body
+        ProductDto body = objectMapper.readValue(first.getResponse().getContentAsString(), ProductDto.class);
+        assertEquals("\"" + savedProduct.getId() + "-" + body.getVersion() + "\"", eTag);
+
+        mockMvc.perform(get("/api/products/" + savedProduct.getId()).header("If-None-Match", eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", eTag))
+                .andExpect(content().string(""));
+
+        mockMvc.perform(get("/api/products/" + savedProduct.getId())
+                .header("If-Modified-Since", first.getResponse().getHeader("Last-Modified")))
+                .andExpect(status().isNotModified());
+
+        mockMvc.perform(put("/api/products/" + savedProduct.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"price\": 12.00}"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/products/" + savedProduct.getId()).header("If-None-Match", eTag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.price").value(12.00));
+
+        // List responses carry a content-derived ETag
+        String pageETag = mockMvc.perform(get("/api/products/category/Conditional"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+        // Weak, so that Tomcat may still gzip the list
+        assertTrue(pageETag.startsWith("W/\""));
+
+        mockMvc.perform(get("/api/products/category/Conditional").header("If-None-Match", pageETag))
+                .andExpect(status().isNotModified());
+
+        mockMvc.perform(get("/api/products/category/Conditional?size=5").header("If-None-Match", pageETag))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void testPatchProductWithIfMatch() throws Exception {
+        Product product = new Product("Patched Product", "Patched Description", new BigDecimal("10.00"), "Patch", 5);
+        Long id = productRepository.saveAndFlush(product).getId();
+        entityManager.clear();
+
+        String eTag = mockMvc.perform(get("/api/products/" + id))
+                .andExpect(jsonPath("$.version").value(0))
+                .andReturn().getResponse().getHeader("ETag");
+        assertEquals("\"" + id + "-0\"", eTag);
+
+        // Same values: no UPDATE, same version
+        try (SqlDiagnostics.Scope scope = sqlDiagnostics.begin()) {
+            mockMvc.perform(patch("/api/products/" + id)
+                    .contentType("application/merge-patch+json")
+                    .header("If-Match", eTag)
+                    .content("{\"price\": 10.0, \"category\": \"Patch\"}"))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string("ETag", eTag));
+            productRepository.flush();
+            assertEquals(1, scope.getStatements());
+        }
+
+        String newETag = mockMvc.perform(patch("/api/products/" + id)
+                .contentType("application/merge-patch+json")
+                .header("If-Match", eTag)
+                .content("{\"description\": null, \"stock\": 7}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Patched Product"))
+                .andExpect(jsonPath("$.description").doesNotExist())
+                .andExpect(jsonPath("$.stock").value(7))
+                .andExpect(jsonPath("$.version").value(1))
+                .andReturn().getResponse().getHeader("ETag");
+        assertEquals("\"" + id + "-1\"", newETag);
+
+        // Stale If-Match on PATCH and PUT
+        mockMvc.perform(patch("/api/products/" + id)
+                .contentType(MediaType.APPLICATION_JSON)
+                .header("If-Match", eTag)
+                .content("{\"stock\": 1}"))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(jsonPath("$.version").value(1));
+        mockMvc.perform(put("/api/products/" + id)
+                .contentType(MediaType.APPLICATION_JSON)
+                .header("If-Match", "W/" + newETag)
+                .content("{\"stock\": 1}"))
+                .andExpect(status().isPreconditionFailed());
+        mockMvc.perform(put("/api/products/" + id)
+                .contentType(MediaType.APPLICATION_JSON)
+                .header("If-Match", eTag + ", " + newETag)
+                .content("{\"stock\": 2}"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"" + id + "-2\""));
+
+        mockMvc.perform(patch("/api/products/" + id)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\": null}"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(patch("/api/products/-1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"stock\": 1}"))
+                .andExpect(status().isNotFound());
+
+        // The stock endpoint bumps the version behind the loaded entity's back: its UPDATE must not win
+        productRepository.findById(id).orElseThrow();
+        mockMvc.perform(post("/api/products/" + id + "/stock/adjust")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"delta\": 1}"))
+                .andExpect(status().isOk());
+        mockMvc.perform(patch("/api/products/" + id)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"stock\": 9}"))
+                .andExpect(status().isConflict());
+    }
+
     @Test
     void testHealthEndpoint() throws Exception {
         mockMvc.perform(get("/health"))
@@ -0,0 +1,213 @@
+package com.example.catalog;
+
+import com.example.catalog.entity.ProductRecord;
+import com.example.catalog.repository.ReactiveProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest(properties = {
+        "spring.main.web-application-type=reactive",
+        "spring.datasource.url=jdbc:h2:mem:reactivedb",
+        "spring.r2dbc.url=r2dbc:h2:mem:///reactivedb",
+        "spring.r2dbc.username=sa",
+        "spring.r2dbc.password=password"
+})
+@AutoConfigureWebTestClient
+@ActiveProfiles("test")
+public class ReactiveProductControllerTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private ReactiveProductRepository productRepository;
+
+    @Autowired
+    private R2dbcEntityTemplate entityTemplate;
+
+    @BeforeEach
+    void setUp() {
+        productRepository.deleteAll().block();
+        entityTemplate.getDatabaseClient().sql("DELETE FROM category_stats").then().block();
+    }
+
+    @Test
+    void testCrudRoundTrip() {
+        String createJson = """
+                {
+                    "name": "Reactive Product",
+                    "description": "Served by WebFlux",
+                    "price": 49.90,
+                    "category": "Reactive",
+                    "stock": 3
+                }
+                """;
+
+        Long id = webTestClient.post().uri("/api/products")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(createJson)
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody(ProductRecord.class)
+                .returnResult().getResponseBody().getId();
+
+        webTestClient.get().uri("/api/products/" + id)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.name").isEqualTo("Reactive Product")
+                .jsonPath("$.createdAt").isNotEmpty();
+
+        webTestClient.put().uri("/api/products/" + id)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"price\": 59.90}")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.name").isEqualTo("Reactive Product")
+                .jsonPath("$.price").isEqualTo(59.90);
+
+        webTestClient.delete().uri("/api/products/" + id)
+                .exchange()
+                .expectStatus().isNoContent();
+
+        webTestClient.get().uri("/api/products/" + id)
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    void testListSearchAndCategories() {
+        Flux.just(
+                record(1L, "Laptop Pro", "Electronics", 2),
+                record(2L, "Desk Lamp", "Home", 10),
+                record(3L, "Laptop Stand", "Home", 1))
+                .concatMap(entityTemplate::insert)
+                .blockLast();
+
+        webTestClient.get().uri("/api/products?size=2")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.content.length()").isEqualTo(2)
+                .jsonPath("$.content[0].name").isEqualTo("Desk Lamp")
+                .jsonPath("$.totalElements").isEqualTo(3);
+
+        webTestClient.get().uri("/api/products/search?q=laptop")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.totalElements").isEqualTo(2);
+
+        webTestClient.get().uri("/api/products/category/home")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.content[0].name").isEqualTo("Desk Lamp");
+
+        webTestClient.get().uri("/api/products/categories")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$[0]").isEqualTo("Electronics")
+                .jsonPath("$[1]").isEqualTo("Home");
+
+        webTestClient.get().uri("/api/products/low-stock?threshold=2")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(2);
+
+        webTestClient.get().uri("/api/products/export")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(MediaType.APPLICATION_NDJSON)
+                .expectBodyList(ProductRecord.class).hasSize(3);
+    }
+
+    @Test
+    void testWritesKeepCategoryStats() {
+        Long first = create("{\"name\": \"Cheap\", \"price\": 10.00, \"category\": \"Audio\", \"stock\": 4}");
+        Long second = create("{\"name\": \"Pricey\", \"price\": 30.00, \"category\": \"audio\", \"stock\": 6}");
+        assertStats("audio", "Audio 2 10 40.00 10.00 30.00");
+
+        webTestClient.put().uri("/api/products/" + first)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"price\": 20.00, \"stock\": 1}")
+                .exchange()
+                .expectStatus().isOk();
+        assertStats("audio", "Audio 2 7 50.00 20.00 30.00");
+
+        webTestClient.put().uri("/api/products/" + second)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"category\": \"Video\"}")
+                .exchange()
+                .expectStatus().isOk();
+        assertStats("audio", "Audio 1 1 20.00 20.00 20.00");
+        assertStats("video", "Video 1 6 30.00 30.00 30.00");
+
+        webTestClient.delete().uri("/api/products/" + first)
+                .exchange()
+                .expectStatus().isNoContent();
+        assertStats("audio", "Audio 0 0 0.00 null null");
+    }
+
+    @Test
+    void testValidationError() {
+        webTestClient.post().uri("/api/products")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"name\": \"\", \"price\": 10.00, \"stock\": 1}")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.error").isEqualTo("Validation Failed")
+                .jsonPath("$.errors.name").isEqualTo("Product name is required");
+    }
+
+    private Long create(String json) {
+        return webTestClient.post().uri("/api/products")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(json)
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody(ProductRecord.class)
+                .returnResult().getResponseBody().getId();
+    }
+
+    private void assertStats(String categoryKey, String expected) {
+        String actual = entityTemplate.getDatabaseClient()
+                .sql("SELECT category, product_count, total_stock, price_sum, min_price, max_price " +
+                        "FROM category_stats WHERE category_key = :categoryKey")
+                .bind("categoryKey", categoryKey)
+                .map(row -> row.get("category") + " " + row.get("product_count") + " " + row.get("total_stock")
+                        + " " + row.get("price_sum") + " " + row.get("min_price") + " " + row.get("max_price"))
+                .one()
+                .block();
+        assertEquals(expected, actual);
+    }
+
+    private ProductRecord record(Long id, String name, String category, int stock) {
+        ProductRecord product = new ProductRecord();
+        product.setId(id);
+        product.setName(name);
+        product.setPrice(new BigDecimal("10.00"));
+        product.setCategory(category);
+        product.setStock(stock);
+        product.setCreatedAt(LocalDateTime.now());
+        product.setUpdatedAt(LocalDateTime.now());
+        return product;
+    }
+}
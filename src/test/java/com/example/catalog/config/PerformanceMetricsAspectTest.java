@@ -0,0 +1,83 @@
+package com.example.catalog.config;
+
+import com.example.catalog.entity.Product;
+import com.example.catalog.repository.ProductRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureWebMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureWebMvc
+@ActiveProfiles("test")
+@Transactional
+public class PerformanceMetricsAspectTest {
+
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+    }
+
+    @Test
+    void testServiceAndRepositoryMetricsAreTaggedByEndpoint() throws Exception {
+        // Create test product
+        Product product = new Product();
+        product.setName("Metrics Product");
+        product.setDescription("Metrics Description");
+        product.setPrice(new BigDecimal("5.00"));
+        product.setCategory("Metrics");
+        product.setStock(2);
+        productRepository.save(product);
+
+        String endpoint = "GET /api/products/category/{category}";
+        // The registry is shared with the other tests, so compare against the values before the request
+        long serviceCalls = meterCount("catalog.service", "getProductsByCategory", endpoint);
+        long queries = meterCount("catalog.repository", "findPageByCategory", endpoint);
+        double rows = rowsTotal("findPageByCategory", endpoint);
+
+        mockMvc.perform(get("/api/products/category/metrics"))
+                .andExpect(status().isOk());
+
+        assertEquals(serviceCalls + 1, meterCount("catalog.service", "getProductsByCategory", endpoint));
+        assertEquals(queries + 1, meterCount("catalog.repository", "findPageByCategory", endpoint));
+        assertEquals(rows + 1, rowsTotal("findPageByCategory", endpoint));
+    }
+
+    private long meterCount(String name, String method, String endpoint) {
+        Timer timer = meterRegistry.find(name).tag("method", method).tag("endpoint", endpoint)
+                .tag("exception", "none").timer();
+        return timer == null ? 0 : timer.count();
+    }
+
+    private double rowsTotal(String method, String endpoint) {
+        DistributionSummary summary = meterRegistry.find("catalog.repository.rows")
+                .tag("method", method).tag("endpoint", endpoint).summary();
+        return summary == null ? 0 : summary.totalAmount();
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.catalog.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PrecompressedResponseFilterTest {
+
+    private static final String BODY = "[\"" + "Electronics\",\"".repeat(100) + "Books\"]";
+
+    private PrecompressedResponseFilter filter;
+    private String eTag;
+
+    @BeforeEach
+    void setUp() {
+        filter = new PrecompressedResponseFilter(List.of("/api/products/categories", "/api/products/category/*"),
+                List.of("application/json"), 256, 100);
+        eTag = "\"v1\"";
+    }
+
+    @Test
+    void testCompressesOncePerETag() throws Exception {
+        MockHttpServletResponse first = perform("/api/products/categories", "gzip, deflate");
+        assertEquals("gzip", first.getHeader("Content-Encoding"));
+        assertEquals("W/\"v1\"", first.getHeader("ETag"));
+        assertEquals(first.getContentAsByteArray().length, first.getContentLength());
+        assertEquals(BODY, gunzip(first.getContentAsByteArray()));
+
+        MockHttpServletResponse second = perform("/api/products/categories", "gzip");
+        assertArrayEquals(first.getContentAsByteArray(), second.getContentAsByteArray());
+        assertEquals(1, filter.getCompressions());
+        assertEquals(1, filter.getHits());
+
+        // A new ETag means new content: compressed again and stored in place of the old entry
+        eTag = "\"v2\"";
+        MockHttpServletResponse changed = perform("/api/products/categories", "gzip");
+        assertEquals(BODY, gunzip(changed.getContentAsByteArray()));
+        assertEquals(2, filter.getCompressions());
+        assertEquals(1, filter.getSize());
+    }
+
+    @Test
+    void testPassesThroughWhenNotApplicable() throws Exception {
+        // Client without gzip, gzip refused, path not configured
+        for (MockHttpServletResponse response : List.of(
+                perform("/api/products/categories", null),
+                perform("/api/products/categories", "gzip;q=0, identity"),
+                perform("/api/products", "gzip"))) {
+            assertNull(response.getHeader("Content-Encoding"));
+            assertEquals(BODY, response.getContentAsString());
+        }
+        assertEquals(0, filter.getCompressions());
+    }
+
+    private MockHttpServletResponse perform(String path, String acceptEncoding) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        if (acceptEncoding != null) {
+            request.addHeader("Accept-Encoding", acceptEncoding);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        FilterChain chain = (req, res) -> {
+            res.setContentType("application/json");
+            ((HttpServletResponse) res).setHeader("ETag", eTag);
+            res.getOutputStream().write(BODY.getBytes(StandardCharsets.UTF_8));
+        };
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+
+    private static String gunzip(byte[] content) throws Exception {
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(content))) {
+            return new String(gzip.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
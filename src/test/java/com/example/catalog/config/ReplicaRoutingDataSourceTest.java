@@ -0,0 +1,113 @@
+package com.example.catalog.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Two in-memory H2 databases stand in for the primary and a replica
+ */
+public class ReplicaRoutingDataSourceTest {
+
+    private DriverManagerDataSource replica;
+    private ReplicaRoutingDataSource routing;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readOnly;
+    private TransactionTemplate readWrite;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource primary = new DriverManagerDataSource("jdbc:h2:mem:routing_primary;DB_CLOSE_DELAY=-1", "sa", "");
+        replica = new DriverManagerDataSource("jdbc:h2:mem:routing_replica;DB_CLOSE_DELAY=-1", "sa", "");
+        new JdbcTemplate(replica).execute("CREATE TABLE IF NOT EXISTS replica_lag (seconds DOUBLE)");
+        new JdbcTemplate(replica).execute("DELETE FROM replica_lag");
+        new JdbcTemplate(replica).execute("INSERT INTO replica_lag VALUES (0)");
+
+        // Checked explicitly by the tests
+        routing = new ReplicaRoutingDataSource(primary, Map.of("replica-1", replica),
+                Duration.ofSeconds(5), Duration.ofHours(1), "SELECT seconds FROM replica_lag");
+        jdbcTemplate = new JdbcTemplate(routing);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(routing);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        readWrite = new TransactionTemplate(transactionManager);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        routing.close();
+    }
+
+    @Test
+    void testReadOnlyTransactionsUseTheReplica() {
+        assertEquals("ROUTING_REPLICA", readOnly.execute(status -> database()));
+        assertEquals("ROUTING_PRIMARY", readWrite.execute(status -> database()));
+        assertEquals("ROUTING_PRIMARY", database());
+
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        routing.bindTo(registry);
+        assertEquals(1, registry.get("catalog.datasource.connections")
+                .tags("target", "replica-1", "read-only", "true").functionCounter().count());
+        assertEquals(1, registry.get("catalog.datasource.replica.available").gauge().value());
+    }
+
+    @Test
+    void testStaleReplicaFallsBackToPrimary() {
+        new JdbcTemplate(replica).update("UPDATE replica_lag SET seconds = 30");
+        routing.checkReplicas();
+        assertEquals("ROUTING_PRIMARY", readOnly.execute(status -> database()));
+        assertEquals(1, routing.getConnections("primary", true));
+
+        new JdbcTemplate(replica).update("UPDATE replica_lag SET seconds = 1");
+        routing.checkReplicas();
+        assertEquals("ROUTING_REPLICA", readOnly.execute(status -> database()));
+    }
+
+    @Test
+    void testUnreachableReplicaIsEjected() {
+        replica.setUrl("jdbc:h2:mem:routing_missing;IFEXISTS=TRUE");
+        assertEquals("ROUTING_PRIMARY", readOnly.execute(status -> database()));
+        assertEquals(0, routing.getConnections("replica-1", true));
+
+        // Stays out of the rotation until a health check passes
+        replica.setUrl("jdbc:h2:mem:routing_replica;DB_CLOSE_DELAY=-1");
+        assertEquals("ROUTING_PRIMARY", readOnly.execute(status -> database()));
+        routing.checkReplicas();
+        assertEquals("ROUTING_REPLICA", readOnly.execute(status -> database()));
+    }
+
+    @Test
+    void testExplicitCredentialsAreRouted() throws SQLException {
+        try (Connection connection = routing.getConnection("sa", "")) {
+            assertEquals("SA", connection.getMetaData().getUserName());
+            assertFalse(connection.isReadOnly());
+        }
+        readOnly.executeWithoutResult(status -> {
+            try (Connection connection = routing.getConnection("sa", "");
+                 ResultSet resultSet = connection.createStatement().executeQuery("SELECT DATABASE()")) {
+                resultSet.next();
+                assertEquals("ROUTING_REPLICA", resultSet.getString(1));
+            } catch (SQLException e) {
+                fail(e);
+            }
+        });
+    }
+
+    private String database() {
+        return jdbcTemplate.queryForObject("SELECT DATABASE()", String.class);
+    }
+}
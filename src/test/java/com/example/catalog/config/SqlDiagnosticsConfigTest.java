@@ -0,0 +1,77 @@
+package com.example.catalog.config;
+
+import com.example.catalog.entity.Product;
+import com.example.catalog.repository.ProductRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureWebMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Statements run through the proxied DataSource are counted in the open scope
+ */
+@SpringBootTest
+@AutoConfigureWebMvc
+@ActiveProfiles("test")
+@Transactional
+public class SqlDiagnosticsConfigTest {
+
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private SqlDiagnostics sqlDiagnostics;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+    }
+
+    @Test
+    void testDeleteProductStatementCount() throws Exception {
+        // Create test product, outside the persistence context so the delete has to load it
+        Product product = new Product();
+        product.setName("Product to Count");
+        product.setDescription("Description");
+        product.setPrice(new BigDecimal("9.99"));
+        product.setCategory("Category");
+        product.setStock(1);
+        Long id = productRepository.saveAndFlush(product).getId();
+        entityManager.clear();
+
+        try (SqlDiagnostics.Scope scope = sqlDiagnostics.begin()) {
+            mockMvc.perform(delete("/api/products/" + id))
+                    .andExpect(status().isNoContent());
+            productRepository.flush();
+            // SELECT then DELETE; an extra existence check would make it 3
+            assertEquals(2, scope.getStatements());
+        }
+
+        try (SqlDiagnostics.Scope scope = sqlDiagnostics.begin()) {
+            mockMvc.perform(delete("/api/products/" + id))
+                    .andExpect(status().isNotFound());
+            assertEquals(1, scope.getStatements());
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.catalog.config;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SqlDiagnosticsTest {
+
+    private final SqlDiagnostics sqlDiagnostics = new SqlDiagnostics(Duration.ofMillis(10), 2);
+
+    @Test
+    void testKeepsTheSlowestStatements() {
+        run("SELECT 50", 50);
+        run("SELECT 5", 5);
+        run("SELECT 200", 200);
+        run("SELECT 20", 20);
+        run("SELECT 100", 100);
+
+        assertEquals(List.of("SELECT 200", "SELECT 100"),
+                sqlDiagnostics.getSlowQueries().stream().map(SqlDiagnostics.SlowQuery::sql).toList());
+
+        sqlDiagnostics.clearSlowQueries();
+        assertTrue(sqlDiagnostics.getSlowQueries().isEmpty());
+    }
+
+    private void run(String sql, long elapsedMillis) {
+        ExecutionInfo execution = new ExecutionInfo();
+        execution.setElapsedTime(elapsedMillis);
+        sqlDiagnostics.afterQuery(execution, List.of(new QueryInfo(sql)));
+    }
+}
@@ -0,0 +1,156 @@
+package com.example.catalog.repository;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Runs every ProductRepository query against Postgres with the Flyway schema and checks with
+ * EXPLAIN (GENERIC_PLAN) that none of them needs a sequential scan. Sequential scans are disabled
+ * for the check, so one only shows up in a plan when no index can serve the query.
+ * Skipped when Docker is not available.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@SpringBootTest(properties = {
+        "spring.main.web-application-type=none",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.example.catalog.repository.ProductRepositoryIndexTest$SqlCapture"
+})
+public class ProductRepositoryIndexTest {
+
+    // GENERIC_PLAN needs Postgres 16
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @DynamicPropertySource
+    static void databaseProperties(DynamicPropertyRegistry registry) {
+        registry.add("DATABASE", () -> "postgresql://" + postgres.getUsername() + ":" + postgres.getPassword()
+                + "@" + postgres.getHost() + ":" + postgres.getMappedPort(PostgreSQLContainer.POSTGRESQL_PORT)
+                + "/" + postgres.getDatabaseName());
+    }
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void testEveryQueryIsServedByAnIndex() throws SQLException {
+        Map<String, Runnable> queries = new LinkedHashMap<>();
+        // Page 1 of an empty table, so Spring Data also issues the count queries
+        queries.put("findAll by name", () -> productRepository.findAll(PageRequest.of(1, 10, Sort.by("name"))));
+        queries.put("findAllDtos by name", () -> productRepository.findAllDtos(PageRequest.of(1, 10, Sort.by("name"))));
+        queries.put("findFields by name", () -> productRepository.findFields(List.of("id", "name", "price"), null, PageRequest.of(0, 10, Sort.by("name"))));
+        queries.put("findFields by category", () -> productRepository.findFields(List.of("id", "name"), "Electronics", PageRequest.of(0, 10, Sort.by("name"))));
+        queries.put("findById", () -> productRepository.findById(1L));
+        queries.put("findDtoById", () -> productRepository.findDtoById(1L));
+        queries.put("findByNameContainingIgnoreCase", () -> productRepository.findByNameContainingIgnoreCase("phone", PageRequest.of(1, 10)));
+        queries.put("findByCategoryIgnoreCase", () -> productRepository.findByCategoryIgnoreCase("Electronics", PageRequest.of(1, 10, Sort.by("name"))));
+        queries.put("findPageByCategory", () -> productRepository.findPageByCategory("Electronics", PageRequest.of(1, 10, Sort.by("name"))));
+        queries.put("countByCategoryIgnoreCase", () -> productRepository.countByCategoryIgnoreCase("Electronics"));
+        queries.put("searchProducts", () -> productRepository.searchProducts("phone", PageRequest.of(1, 10)));
+        queries.put("fullTextSearch", () -> productRepository.fullTextSearch("phone", PageRequest.of(1, 10)));
+        queries.put("findAllAfter", () -> productRepository.findAllAfter("", 0L, PageRequest.ofSize(11)));
+        queries.put("findAllDtosAfter", () -> productRepository.findAllDtosAfter("", 0L, PageRequest.ofSize(11)));
+        queries.put("findByCategoryAfter", () -> productRepository.findByCategoryAfter("Electronics", "", 0L, PageRequest.ofSize(11)));
+        queries.put("searchProductsAfter", () -> productRepository.searchProductsAfter("phone", "", 0L, PageRequest.ofSize(11)));
+        queries.put("findStockById", () -> productRepository.findStockById(1L));
+        queries.put("aggregateByCategoryKeys", () -> productRepository.aggregateByCategoryKeys(List.of("electronics", "books")));
+        queries.put("findCategoryKeys", () -> productRepository.findCategoryKeys());
+        queries.put("streamAllBy", () -> productRepository.streamAllBy().close());
+        queries.put("findLowStockAfter", () -> productRepository.findLowStockAfter(5, -1, 0L, PageRequest.ofSize(11)));
+        queries.put("findLowStockAfterUnbounded", () -> productRepository.findLowStockAfterUnbounded(150, -1, 0L, PageRequest.ofSize(11)));
+        queries.put("streamLowStock", () -> productRepository.streamLowStock(5).close());
+        queries.put("findByPriceRange", () -> productRepository.findByPriceRange(BigDecimal.ONE, BigDecimal.TEN, PageRequest.of(1, 10)));
+        queries.put("findDistinctCategories", () -> productRepository.findDistinctCategories());
+
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+
+        try (Connection connection = DriverManager.getConnection(
+                // Simple query mode sends $n placeholders to the server untouched
+                postgres.getJdbcUrl() + "&preferQueryMode=simple", postgres.getUsername(), postgres.getPassword());
+             Statement statement = connection.createStatement()) {
+            statement.execute("SET enable_seqscan = off");
+
+            for (Map.Entry<String, Runnable> query : queries.entrySet()) {
+                SqlCapture.statements.clear();
+                transactionTemplate.executeWithoutResult(status -> query.getValue().run());
+
+                for (String sql : new ArrayList<>(SqlCapture.statements)) {
+                    String plan = explain(statement, sql);
+                    assertFalse(plan.contains("Seq Scan"),
+                            query.getKey() + " falls back to a sequential scan:\n" + sql + "\n" + plan);
+                }
+            }
+        }
+    }
+
+    private static String explain(Statement statement, String sql) throws SQLException {
+        StringBuilder plan = new StringBuilder();
+        try (ResultSet rows = statement.executeQuery("EXPLAIN (GENERIC_PLAN) " + numberParameters(sql))) {
+            while (rows.next()) {
+                plan.append(rows.getString(1)).append('\n');
+            }
+        }
+        return plan.toString();
+    }
+
+    /**
+     * Rewrite JDBC ? placeholders (outside string literals) as $1, $2, ... for EXPLAIN (GENERIC_PLAN)
+     */
+    private static String numberParameters(String sql) {
+        StringBuilder numbered = new StringBuilder(sql.length() + 16);
+        boolean literal = false;
+        int parameter = 0;
+        for (char c : sql.toCharArray()) {
+            if (c == '\'') {
+                literal = !literal;
+            }
+            if (c == '?' && !literal) {
+                numbered.append('$').append(++parameter);
+            } else {
+                numbered.append(c);
+            }
+        }
+        return numbered.toString();
+    }
+
+    /**
+     * Records the SQL Hibernate sends, so the test explains exactly what the repository runs
+     */
+    public static class SqlCapture implements StatementInspector {
+
+        static final List<String> statements = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            statements.add(sql);
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.catalog.search;
+
+import com.example.catalog.entity.Product;
+import com.example.catalog.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+public class InMemoryProductSearchEngineTest {
+
+    private InMemoryProductSearchEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        engine = new InMemoryProductSearchEngine();
+        engine.onProductSaved(product(1L, "Smartphone XYZ", "Tela de 6.1 polegadas", "Electronics"));
+        engine.onProductSaved(product(2L, "Capa para smartphone", "Proteção de silicone", "Acessórios"));
+        engine.onProductSaved(product(3L, "Laptop ABC", "Laptop com 16GB RAM, ótimo para smartphone sync", "Electronics"));
+    }
+
+    @Test
+    void testPrefixMatchingRanksNameMatchesFirst() {
+        Page<Product> results = engine.search("smart", PageRequest.of(0, 10));
+
+        assertEquals(3, results.getTotalElements());
+        assertEquals("Capa para smartphone", results.getContent().get(0).getName());
+        assertEquals("Smartphone XYZ", results.getContent().get(1).getName());
+        assertEquals("Laptop ABC", results.getContent().get(2).getName());
+    }
+
+    @Test
+    void testAllTokensMustMatchIgnoringAccents() {
+        Page<Product> results = engine.search("protecao SMART", PageRequest.of(0, 10));
+
+        assertEquals(1, results.getTotalElements());
+        assertEquals(2L, results.getContent().get(0).getId());
+    }
+
+    @Test
+    void testUpdatesAndDeletesAreIndexedIncrementally() {
+        engine.onProductSaved(product(1L, "Tablet XYZ", "Tela de 10 polegadas", "Electronics"));
+        engine.onProductDeleted(2L);
+
+        assertEquals(1, engine.search("smartphone", PageRequest.of(0, 10)).getTotalElements());
+        assertEquals(1L, engine.search("tab", PageRequest.of(0, 10)).getContent().get(0).getId());
+        assertEquals(2, engine.documentCount());
+        assertTrue(engine.estimatedMemoryBytes() > 0);
+    }
+
+    @Test
+    void testOnlyNewerVersionsAreApplied() {
+        LocalDateTime adjustedAt = LocalDateTime.of(2024, 1, 1, 12, 0);
+        Product held = product(1L, "Smartphone XYZ", "Tela de 6.1 polegadas", "Electronics");
+        held.setVersion(1L);
+        engine.onProductSaved(held);
+
+        // Committed out of order: the older adjustment arrives last and is ignored
+        engine.onStockAdjusted(1L, 3, 3L, adjustedAt);
+        engine.onStockAdjusted(1L, 5, 2L, adjustedAt.minusSeconds(1));
+        Product stale = product(1L, "Tablet XYZ", "Tela de 10 polegadas", "Electronics");
+        stale.setVersion(2L);
+        engine.onProductSaved(stale);
+
+        Product product = engine.search("xyz", PageRequest.of(0, 10)).getContent().get(0);
+        assertEquals("Smartphone XYZ", product.getName());
+        assertEquals(3, product.getStock());
+        assertEquals(3L, product.getVersion());
+        assertEquals(adjustedAt, product.getUpdatedAt());
+    }
+
+    @Test
+    void testChangesFromOtherNodesAreReloaded() {
+        ProductRepository productRepository = mock(ProductRepository.class);
+        ReflectionTestUtils.setField(engine, "productRepository", productRepository);
+        Product held = product(1L, "Smartphone XYZ", "Tela de 6.1 polegadas", "Electronics");
+        held.setVersion(3L);
+        engine.onProductSaved(held);
+
+        // Already indexed at that version (a change made by this node)
+        engine.onProductChanged(1L, false, 3L);
+        verify(productRepository, never()).findById(anyLong());
+
+        // A local stock adjustment followed by its own notification: the reload reads the same row
+        Product adjusted = product(1L, "Smartphone XYZ", "Tela de 6.1 polegadas", "Electronics");
+        adjusted.setStock(6);
+        adjusted.setVersion(4L);
+        when(productRepository.findById(1L)).thenReturn(Optional.of(adjusted));
+        engine.onProductChanged(1L, false, 4L);
+        engine.onStockAdjusted(1L, 6, 4L, LocalDateTime.now());
+        assertEquals(6, engine.search("xyz", PageRequest.of(0, 10)).getContent().get(0).getStock());
+
+        Product changed = product(1L, "Tablet XYZ", "Tela de 10 polegadas", "Electronics");
+        changed.setVersion(5L);
+        when(productRepository.findById(1L)).thenReturn(Optional.of(changed));
+        engine.onProductChanged(1L, false, 5L);
+        engine.onProductChanged(2L, true, null);
+
+        assertEquals(1L, engine.search("tablet", PageRequest.of(0, 10)).getContent().get(0).getId());
+        assertEquals(1, engine.search("smartphone", PageRequest.of(0, 10)).getTotalElements());
+        assertEquals(2, engine.documentCount());
+    }
+
+    @Test
+    void testPagination() {
+        Page<Product> results = engine.search("electronics", PageRequest.of(1, 1));
+
+        assertEquals(2, results.getTotalElements());
+        assertEquals(1, results.getContent().size());
+        assertEquals("Smartphone XYZ", results.getContent().get(0).getName());
+    }
+
+    private static Product product(Long id, String name, String description, String category) {
+        Product product = new Product(name, description, new BigDecimal("10.00"), category, 1);
+        product.setId(id);
+        return product;
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.catalog.search;
+
+import com.example.catalog.entity.Product;
+import com.example.catalog.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the full-text engine against Postgres with the Flyway schema (search_vector, pg_trgm).
+ * Skipped when Docker is not available.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@SpringBootTest(properties = {
+        "spring.main.web-application-type=none",
+        "catalog.search.engine=postgres",
+        "catalog.cache.change-notifications.enabled=false"
+})
+@Transactional
+public class PostgresFullTextSearchEngineTest {
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @DynamicPropertySource
+    static void databaseProperties(DynamicPropertyRegistry registry) {
+        registry.add("DATABASE", () -> "postgresql://" + postgres.getUsername() + ":" + postgres.getPassword()
+                + "@" + postgres.getHost() + ":" + postgres.getMappedPort(PostgreSQLContainer.POSTGRESQL_PORT)
+                + "/" + postgres.getDatabaseName());
+    }
+
+    @Autowired
+    private ProductSearchEngine productSearchEngine;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Test
+    void testWordMatchesRankBeforeSubstringMatches() {
+        assertInstanceOf(PostgresFullTextSearchEngine.class, productSearchEngine);
+        // 'simple' configuration: zephyrine does not match the word zephyr, only the substring
+        save("Zephyrine Shade", "Lampshade");
+        save("Desk Light", "Brushed zephyr finish");
+        save("Zephyr Lamp", "Table lamp");
+        save("Floor Lamp", "Brushed steel");
+
+        Page<Product> first = productSearchEngine.search("zephyr", PageRequest.of(0, 2));
+        assertEquals(List.of("Zephyr Lamp", "Desk Light"), names(first));
+        assertEquals(3, first.getTotalElements());
+        assertEquals(2, first.getTotalPages());
+
+        // Past the first page the total comes from the count query
+        Page<Product> second = productSearchEngine.search("zephyr", PageRequest.of(1, 2));
+        assertEquals(List.of("Zephyrine Shade"), names(second));
+        assertEquals(3, second.getTotalElements());
+
+        assertEquals(0, productSearchEngine.search("zephyrs", PageRequest.of(1, 2)).getTotalElements());
+    }
+
+    private void save(String name, String description) {
+        Product product = new Product();
+        product.setName(name);
+        product.setDescription(description);
+        product.setPrice(new BigDecimal("10.00"));
+        product.setCategory("Lighting");
+        product.setStock(1);
+        productRepository.saveAndFlush(product);
+    }
+
+    private static List<String> names(Page<Product> page) {
+        return page.getContent().stream().map(Product::getName).toList();
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.catalog.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+public class ProductChangeListenerTest {
+
+    private ProductService productService;
+    private ProductChangeListener listener;
+
+    @BeforeEach
+    void setUp() {
+        productService = mock(ProductService.class);
+        when(productService.onProductChanged(anyLong(), anyBoolean(), any())).thenReturn(true);
+        listener = new ProductChangeListener(null, productService, new ObjectMapper(), Duration.ofSeconds(5));
+    }
+
+    @Test
+    void testStatementNotificationAppliesEveryRow() {
+        listener.apply("{\"op\": \"UPDATE\", \"changes\": [[1, 3], [2, null]]}");
+
+        verify(productService).onProductChanged(1L, false, 3L);
+        verify(productService).onProductChanged(2L, false, null);
+        assertEquals(1, listener.getReceived());
+        assertEquals(2, listener.getEvicted());
+    }
+
+    @Test
+    void testDeleteNotification() {
+        listener.apply("{\"op\": \"DELETE\", \"changes\": [[7, null]]}");
+
+        verify(productService).onProductChanged(7L, true, null);
+    }
+
+    @Test
+    void testMalformedPayloadIsSkipped() {
+        listener.apply("not json");
+
+        verify(productService, never()).onProductChanged(anyLong(), anyBoolean(), any());
+        assertEquals(1, listener.getReceived());
+    }
+}
@@ -0,0 +1,172 @@
+package com.example.catalog.service;
+
+import com.example.catalog.dto.StockItemDto;
+import com.example.catalog.exception.InsufficientStockException;
+import com.example.catalog.exception.ProductNotFoundException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.*;
+
+public class StockWriteBehindBufferTest {
+
+    private ProductService productService;
+    private ApplicationEventPublisher eventPublisher;
+    private StockWriteBehindBuffer buffer;
+    private final Map<Long, Integer> database = new TreeMap<>();
+
+    @BeforeEach
+    void setUp() {
+        database.put(1L, 100);
+        database.put(2L, 1);
+
+        productService = mock(ProductService.class);
+        when(productService.getStock(anyLong())).thenAnswer(call -> Optional.ofNullable(database.get(call.<Long>getArgument(0))));
+        when(productService.mergeStockItems(anyList())).thenAnswer(call -> {
+            Map<Long, Integer> quantities = new TreeMap<>();
+            call.<List<StockItemDto>>getArgument(0).forEach(item -> quantities.merge(item.getId(), item.getQuantity(), Integer::sum));
+            return quantities;
+        });
+        when(productService.applyStockDeltas(anyMap())).thenAnswer(call -> {
+            // Same conditional write as the database: missing products and negative results are skipped
+            Map<Long, Integer> stocks = new TreeMap<>();
+            call.<Map<Long, Integer>>getArgument(0).forEach((id, delta) -> {
+                Integer stock = database.get(id);
+                if (stock != null && stock + delta >= 0) {
+                    database.put(id, stock + delta);
+                    stocks.put(id, stock + delta);
+                }
+            });
+            return stocks;
+        });
+        eventPublisher = mock(ApplicationEventPublisher.class);
+
+        buffer = new StockWriteBehindBuffer();
+        ReflectionTestUtils.setField(buffer, "productService", productService);
+        ReflectionTestUtils.setField(buffer, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(buffer, "eventPublisher", eventPublisher);
+        // Flushed explicitly by the tests
+        ReflectionTestUtils.setField(buffer, "flushInterval", Duration.ofHours(1));
+        ReflectionTestUtils.setField(buffer, "maxPending", Integer.MAX_VALUE);
+        ReflectionTestUtils.setField(buffer, "idleTimeout", Duration.ofHours(1));
+        buffer.start();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        buffer.stop();
+    }
+
+    @Test
+    void testConcurrentReservationsAreCoalescedIntoOneWrite() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<Boolean>> reservations = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            reservations.add(executor.submit(() -> {
+                try {
+                    buffer.reserveStock(List.of(new StockItemDto(1L, 1)));
+                    return true;
+                } catch (InsufficientStockException e) {
+                    return false;
+                }
+            }));
+        }
+        int reserved = 0;
+        for (Future<Boolean> reservation : reservations) {
+            reserved += reservation.get() ? 1 : 0;
+        }
+        executor.shutdown();
+
+        assertEquals(100, reserved);
+        verify(productService, never()).applyStockDeltas(anyMap());
+        buffer.flush();
+        verify(productService).applyStockDeltas(Map.of(1L, -100));
+        assertEquals(0, database.get(1L));
+    }
+
+    @Test
+    void testBatchIsAllOrNothing() {
+        assertThrows(InsufficientStockException.class,
+                () -> buffer.reserveStock(List.of(new StockItemDto(1L, 10), new StockItemDto(2L, 2))));
+        assertThrows(ProductNotFoundException.class,
+                () -> buffer.releaseStock(List.of(new StockItemDto(1L, 10), new StockItemDto(3L, 1))));
+        assertEquals(Optional.empty(), buffer.adjustStock(3L, 1));
+
+        assertEquals(100, buffer.adjustStock(1L, 0).orElseThrow().getStock());
+        buffer.flush();
+        verify(productService, never()).applyStockDeltas(anyMap());
+    }
+
+    @Test
+    void testFailedFlushKeepsDeltas() {
+        buffer.adjustStock(1L, -5);
+        doThrow(new IllegalStateException("database down")).when(productService).applyStockDeltas(anyMap());
+        assertThrows(IllegalStateException.class, buffer::flush);
+
+        buffer.adjustStock(1L, -3);
+        doReturn(Map.of(1L, 92)).when(productService).applyStockDeltas(anyMap());
+        buffer.flush();
+        verify(productService).applyStockDeltas(Map.of(1L, -8));
+    }
+
+    @Test
+    void testStockChangedElsewhereIsPickedUpOnFlush() throws InterruptedException {
+        buffer.adjustStock(1L, -10);
+        // Another writer added 50 units since the product was buffered
+        database.merge(1L, 50, Integer::sum);
+        buffer.flush();
+
+        assertEquals(140, database.get(1L));
+        assertEquals(139, buffer.adjustStock(1L, -1).orElseThrow().getStock());
+
+        buffer.stop();
+        assertEquals(139, database.get(1L));
+    }
+
+    @Test
+    void testShortDeltaIsKeptAndBlocksReservations() {
+        buffer.adjustStock(1L, -60);
+        // Another writer lowered the stock below what was reserved here
+        database.put(1L, 50);
+        buffer.flush();
+
+        assertEquals(50, database.get(1L));
+        assertThrows(InsufficientStockException.class, () -> buffer.reserveStock(List.of(new StockItemDto(1L, 1))));
+        assertEquals(-5, buffer.releaseStock(List.of(new StockItemDto(1L, 5))).get(0).getStock());
+
+        // Restocked: the kept delta is written with the next flush
+        database.put(1L, 70);
+        buffer.flush();
+        assertEquals(15, database.get(1L));
+        assertEquals(14, buffer.adjustStock(1L, -1).orElseThrow().getStock());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void testDeltaOfDeletedProductIsPublished() {
+        buffer.adjustStock(2L, -1);
+        database.remove(2L);
+        buffer.flush();
+
+        verify(eventPublisher).publishEvent(new StockDeltaDroppedEvent(2L, -1));
+        assertEquals(Optional.empty(), buffer.adjustStock(2L, 1));
+    }
+}